@@ -0,0 +1,172 @@
+package com.feelmycode.parabole.benchmark;
+
+import com.feelmycode.parabole.ParaboleApplication;
+import com.feelmycode.parabole.domain.CartItem;
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.domain.User;
+import com.feelmycode.parabole.dto.CartBySellerDto;
+import com.feelmycode.parabole.dto.CartItemDto;
+import com.feelmycode.parabole.dto.CartResponseDto;
+import com.feelmycode.parabole.infra.CartStore;
+import com.feelmycode.parabole.repository.CartItemRepository;
+import com.feelmycode.parabole.repository.ProductRepository;
+import com.feelmycode.parabole.repository.SellerRepository;
+import com.feelmycode.parabole.repository.UserRepository;
+import com.feelmycode.parabole.service.CartItemService;
+import com.feelmycode.parabole.service.CartService;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 판매자별로 묶은 장바구니 조회 비교.
+ * benchmark 프로필(Testcontainers 로 띄운 일회용 MySQL)에 판매자 SELLERS 명, 상품 items 개를 담은 장바구니를 만든다.
+ * 매 호출마다 메모리 장바구니를 내보내 두 방식 모두 DB 에서 장바구니를 읽는다.
+ * entity    : 이전 조회 방식. 장바구니 상품 엔티티를 읽고 상품, 판매자를 지연 로딩한 뒤 "판매자id$상점명" 키로 묶는다
+ *             (open-in-view 와 같게 트랜잭션 안에서 실행)
+ * readModel : CartItemService 조회 (장바구니 행 읽기 + 상품/판매자 fetch join 한 번)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CartViewBenchmark {
+
+    private static final int SELLERS = 5;
+
+    @Param({"10", "50", "100"})
+    private int items;
+
+    @Param({"entity", "readModel"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private CartItemService cartItemService;
+    private CartService cartService;
+    private CartStore cartStore;
+    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
+    private SellerRepository sellerRepository;
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Seller> sellers = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private User user;
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParaboleApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.profiles.active=benchmark");
+        cartItemService = context.getBean(CartItemService.class);
+        cartService = context.getBean(CartService.class);
+        cartStore = context.getBean(CartStore.class);
+        cartItemRepository = context.getBean(CartItemRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        sellerRepository = context.getBean(SellerRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        for (int i = 0; i < SELLERS; i++) {
+            sellers.add(sellerRepository.save(
+                new Seller("cart benchmark store " + i, "505050505" + i + "-5050505050")));
+        }
+        for (int i = 0; i < items; i++) {
+            products.add(productRepository.save(new Product(sellers.get(i % SELLERS), 1, 100L, "benchmark",
+                "thumbnail.png", "cart benchmark product " + i, 1000L)));
+        }
+        user = userRepository.save(new User("cart-benchmark@test.com", "benchmark", "benchmark", "010-0000-0000",
+            "benchmark"));
+        cartId = cartService.createCart(user.getId());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(items);
+        for (Product product : products) {
+            rows.add(new Object[]{cartId, product.getId(), 1, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, product_cnt, created_at, updated_at, "
+            + "is_deleted) VALUES (?, ?, ?, ?, ?, false)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartResponseDto view() {
+        // 트랜잭션 밖이라 바로 내보낸다.
+        cartStore.evictAfterCommit(user.getId());
+        if (mode.equals("entity")) {
+            return transactionTemplate.execute(status -> groupBySellerKey(user.getId()));
+        }
+        return cartItemService.getCartItemGroupBySellerIdOrderByIdDesc(user.getId());
+    }
+
+    /** 메모리 장바구니 도입 전 CartItemService 의 판매자별 묶음 조회 */
+    private CartResponseDto groupBySellerKey(Long userId) {
+        Long cnt = 0L;
+        Long id = cartService.getCart(userId).getId();
+        List<CartItem> cartItems = cartItemRepository.findAllByCartId(id).stream()
+            .sorted(Comparator.comparing(CartItem::getId).reversed())
+            .toList();
+
+        HashMap<String, Integer> sellerIdMap = new HashMap<>();
+        int idx = 1;
+        for (CartItem item : cartItems) {
+            Seller seller = item.getProduct().getSeller();
+            String key = seller.getId() + "$" + seller.getStoreName();
+            if (!sellerIdMap.containsKey(key)) {
+                sellerIdMap.put(key, idx++);
+            }
+        }
+
+        List<List<CartItemDto>> itemLists = new ArrayList<>();
+        for (int i = 0; i <= sellerIdMap.size(); i++) {
+            itemLists.add(new ArrayList<>());
+        }
+        for (CartItem item : cartItems) {
+            cnt++;
+            Seller seller = item.getProduct().getSeller();
+            String key = seller.getId() + "$" + seller.getStoreName();
+            itemLists.get(sellerIdMap.get(key)).add(new CartItemDto(item));
+        }
+
+        List<CartBySellerDto> cartBySellerDtoList = new ArrayList<>();
+        HashSet<Long> checkContainsSellerId = new HashSet<>();
+        for (String key : sellerIdMap.keySet()) {
+            Long sellerId = Long.parseLong(key.split("\\$")[0]);
+            String storeName = key.split("\\$")[1];
+            if (checkContainsSellerId.add(sellerId)) {
+                cartBySellerDtoList.add(new CartBySellerDto(sellerId, storeName, itemLists.get(sellerIdMap.get(key))));
+            }
+        }
+        return new CartResponseDto(id, cnt, cartBySellerDtoList);
+    }
+}
@@ -0,0 +1,45 @@
+package com.feelmycode.parabole.benchmark;
+
+import com.feelmycode.parabole.global.util.CouponAllocationSolver;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 쿠폰 배정 솔버 벤치마크.
+ * 판매자별로 묶은 장바구니 groups 개 그룹과 판매자 전용 쿠폰 coupons 장
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CouponAllocationSolverBenchmark {
+
+    @Param({"10", "50", "100"})
+    private int groups;
+
+    @Param({"100", "500"})
+    private int coupons;
+
+    private long[][] weights;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        weights = new long[groups][coupons];
+        for (int c = 0; c < coupons; c++) {
+            weights[random.nextInt(groups)][c] = 1 + random.nextInt(50_000);
+        }
+    }
+
+    @Benchmark
+    public int[] solve() {
+        return CouponAllocationSolver.solve(weights);
+    }
+}
@@ -0,0 +1,108 @@
+package com.feelmycode.parabole.benchmark;
+
+import com.feelmycode.parabole.ParaboleApplication;
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.repository.ProductRepository;
+import com.feelmycode.parabole.repository.SellerRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 판매자 상품 목록의 offset 페이지 조회와 커서(keyset) 조회 비교.
+ * benchmark 프로필(Testcontainers 로 띄운 일회용 MySQL)에 판매자와 상품 PAGES * SIZE 건을 넣는다.
+ * offset : Page 조회 (LIMIT/OFFSET + count 쿼리)
+ * keyset : Slice 조회 (product_id < cursor, count 없음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductPaginationBenchmark {
+
+    private static final int SIZE = 20;
+    private static final int PAGES = 5000;
+
+    @Param({"1", "5000"})
+    private int page;
+
+    @Param({"offset", "keyset"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private SellerRepository sellerRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Seller seller;
+    private Long cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParaboleApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.profiles.active=benchmark");
+        productRepository = context.getBean(ProductRepository.class);
+        sellerRepository = context.getBean(SellerRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        seller = sellerRepository.save(new Seller("pagination benchmark store", "3030303030-3030303030"));
+        seed(PAGES * SIZE);
+
+        cursor = Long.MAX_VALUE;
+        if (page > 1) {
+            cursor = jdbcTemplate.queryForObject(
+                "SELECT product_id FROM products WHERE seller_id = ? AND is_deleted = false "
+                    + "ORDER BY product_id DESC LIMIT 1 OFFSET ?",
+                Long.class, seller.getId(), (page - 1) * SIZE - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> list() {
+        if (mode.equals("offset")) {
+            return productRepository.findAllBySellerIdAndIsDeletedFalse(seller.getId(),
+                PageRequest.of(page - 1, SIZE, Sort.by(Direction.DESC, "id"))).getContent();
+        }
+        return productRepository.findAllBySellerIdAndIsDeletedFalseAndIdLessThanOrderByIdDesc(seller.getId(),
+            cursor, PageRequest.of(0, SIZE)).getContent();
+    }
+
+    private void seed(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(1000);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{seller.getId(), "benchmark product " + i, 0, 100L, 10000L, "benchmark",
+                "thumbnail.png", now, now});
+            if (rows.size() == 1000 || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (seller_id, product_name, product_sales_status, "
+                    + "product_remains, product_price, product_category, product_thumbnail_img, is_deleted, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, false, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
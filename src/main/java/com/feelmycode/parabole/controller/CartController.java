@@ -1,9 +1,11 @@
 package com.feelmycode.parabole.controller;
 
 import com.feelmycode.parabole.dto.CartAddItemRequestDto;
+import com.feelmycode.parabole.dto.CartBatchRequestDto;
 import com.feelmycode.parabole.dto.CartResponseDto;
 import com.feelmycode.parabole.dto.CartItemDeleteRequestDto;
 import com.feelmycode.parabole.dto.CartItemUpdateRequestDto;
+import com.feelmycode.parabole.dto.CouponAllocationResponseDto;
 import com.feelmycode.parabole.global.api.ParaboleResponse;
 import com.feelmycode.parabole.service.CartItemService;
 import lombok.RequiredArgsConstructor;
@@ -49,6 +51,13 @@ public class CartController {
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품수량 수정");
     }
 
+    // 여러 상품 추가, 수량 변경, 삭제를 한 번에 반영하고 바뀐 장바구니를 반환
+    @PostMapping(value = "/batch")
+    public ResponseEntity<ParaboleResponse> applyBatch(@RequestAttribute("userId") Long userId, @RequestBody CartBatchRequestDto dto) {
+        CartResponseDto cartResponseDto = cartItemService.applyBatch(userId, dto);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "장바구니 일괄 변경", cartResponseDto);
+    }
+
     // 상품정보와 쿠폰을 셀러기준으로 grouping하여 가져옴
     @GetMapping(value="/list")
     public ResponseEntity<ParaboleResponse> getCartItems(@RequestAttribute("userId") Long userId) {
@@ -56,4 +65,11 @@ public class CartController {
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "seller로 grouping한 장바구니 상품", cartResponseDto);
     }
 
+    // 장바구니의 판매자 그룹별로 할인 합계가 가장 큰 쿠폰 조합
+    @GetMapping(value="/coupon")
+    public ResponseEntity<ParaboleResponse> getCouponAllocation(@RequestAttribute("userId") Long userId) {
+        CouponAllocationResponseDto response = cartItemService.getCouponAllocation(userId);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "장바구니 최대 할인 쿠폰 조합", response);
+    }
+
 }
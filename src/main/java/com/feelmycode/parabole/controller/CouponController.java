@@ -2,34 +2,34 @@ package com.feelmycode.parabole.controller;
 
 import com.feelmycode.parabole.domain.Coupon;
 import com.feelmycode.parabole.domain.Seller;
-import com.feelmycode.parabole.domain.User;
-import com.feelmycode.parabole.domain.UserCoupon;
 import com.feelmycode.parabole.dto.CouponAssignRequestDto;
 import com.feelmycode.parabole.dto.CouponCreateRequestDto;
 import com.feelmycode.parabole.dto.CouponCreateResponseDto;
 import com.feelmycode.parabole.dto.CouponDto;
 import com.feelmycode.parabole.dto.CouponInfoResponseDto;
+import com.feelmycode.parabole.dto.CouponIssueJobResponseDto;
+import com.feelmycode.parabole.dto.CouponRecommendRequestDto;
+import com.feelmycode.parabole.dto.CouponRecommendResponseDto;
 import com.feelmycode.parabole.dto.CouponRequestDto;
+import com.feelmycode.parabole.dto.CouponReservationResponseDto;
 import com.feelmycode.parabole.dto.CouponSellerResponseDto;
 import com.feelmycode.parabole.dto.CouponUseAndAssignRequestDto;
 import com.feelmycode.parabole.dto.CouponUserResponseDto;
 import com.feelmycode.parabole.enumtype.CouponType;
 import com.feelmycode.parabole.global.api.ParaboleResponse;
-import com.feelmycode.parabole.global.error.exception.NoDataException;
-import com.feelmycode.parabole.global.error.exception.ParaboleException;
-import com.feelmycode.parabole.repository.UserCouponRepository;
-import com.feelmycode.parabole.repository.UserRepository;
+import com.feelmycode.parabole.service.CouponIssueService;
+import com.feelmycode.parabole.service.CouponRecommendService;
+import com.feelmycode.parabole.service.CouponReservationService;
 import com.feelmycode.parabole.service.CouponService;
 import com.feelmycode.parabole.service.SellerService;
 import com.feelmycode.parabole.service.UserService;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -47,9 +47,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class CouponController {
 
     private final CouponService couponService;
+    private final CouponIssueService couponIssueService;
+    private final CouponRecommendService couponRecommendService;
+    private final CouponReservationService couponReservationService;
     private final UserService userService;
-    private final UserRepository userRepository;
-    private final UserCouponRepository userCouponRepository;
     private final SellerService sellerService;
 
     private final static int DEFAULT_PAGE = 0;
@@ -59,33 +60,23 @@ public class CouponController {
     public ResponseEntity<ParaboleResponse> addCoupon(@RequestAttribute Long sellerId,
                                     @RequestBody CouponCreateRequestDto dto) {
 
-        /** addCoupon, addUserCoupon 이 모두 발생한다. */
+        /** 쿠폰 등록 후 UserCoupon 발행 작업이 시작되며, 발행 수량이 많으면 작업 Id 만 먼저 반환한다. */
         CouponCreateResponseDto response = couponService.addCoupon(sellerId, dto);
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "쿠폰 등록 성공", response);
     }
 
+    @GetMapping("/issue/{jobId}")
+    public ResponseEntity<ParaboleResponse> getCouponIssueJob(@PathVariable("jobId") Long jobId) {
+
+        CouponIssueJobResponseDto response = couponIssueService.getJob(jobId);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "쿠폰 발행 진행 상황", response);
+    }
+
     @PostMapping("/assign")
     public ResponseEntity<ParaboleResponse> assignCoupon(
         @RequestBody CouponAssignRequestDto dto) {
 
-        Coupon coupon = couponService.getCouponById(dto.getCouponId());
-        List<Long> getUserIdList = dto.getUserIdList();
-        List<User> userList = new ArrayList<>();
-
-        for (Long id : getUserIdList) {
-            userList.add(userRepository.findById(id).orElseThrow(() -> new NoDataException()));
-        }
-
-        List<UserCoupon> userCouponList = coupon.getNotAssignedUserCouponList();
-        if (userCouponList.size() < getUserIdList.size()) {
-            throw new ParaboleException(HttpStatus.NOT_ACCEPTABLE, "사용자에게 배정할 쿠폰의 수량이 부족합니다.");
-        } else {
-            for (int i = 0; i < userList.size(); i++) {
-                userCouponList.get(i).setUser(userList.get(i));
-                userCouponList.get(i).setAcquiredDate(LocalDateTime.now());
-            }
-            userCouponRepository.saveAll(userCouponList);
-        }
+        couponService.assignCoupon(dto);
         return ParaboleResponse.CommonResponse(HttpStatus.OK,
             true, "사용자에게 쿠폰 배정 성공");
     }
@@ -158,9 +149,23 @@ public class CouponController {
 
     @GetMapping("/{couponId}/stock/{stock}")
     public Boolean setCouponRemains(@PathVariable("couponId") Long couponId,
-        @PathVariable("stock") Integer stock) {
+        @PathVariable("stock") Integer stock, @RequestParam(required = false) Long eventId) {
         log.info("Set Coupon Remains By Event Server : {} ", couponId);
-        return couponService.setCouponStock(couponId, stock);
+        return couponService.setCouponStock(couponId, stock, eventId);
+    }
+
+    @PostMapping("/{couponId}/reservation")
+    public ResponseEntity<ParaboleResponse> reserveCoupon(@PathVariable("couponId") Long couponId,
+        @RequestParam Long eventId, @RequestParam Integer stock) {
+        CouponReservationResponseDto response = couponReservationService.reserve(eventId, couponId, stock);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "이벤트 쿠폰 예약", response);
+    }
+
+    @DeleteMapping("/{couponId}/reservation")
+    public ResponseEntity<ParaboleResponse> cancelCouponReservation(@PathVariable("couponId") Long couponId,
+        @RequestParam Long eventId) {
+        CouponReservationResponseDto response = couponReservationService.cancel(eventId, couponId, null);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "이벤트 쿠폰 예약 취소", response);
     }
 
     @GetMapping
@@ -169,4 +174,12 @@ public class CouponController {
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "사용자 "+userId+" 님이 "+couponRequestDto.getSellerId()+" 판매자한테 사용할 수 있는 쿠폰 목록입니다.", couponService.getCouponListByDiscountValue(userId, couponRequestDto));
     }
 
+    @PostMapping("/recommend")
+    public ResponseEntity<ParaboleResponse> recommendCoupons(@RequestAttribute Long userId,
+        @RequestBody CouponRecommendRequestDto dto) {
+        List<CouponRecommendResponseDto> response = couponRecommendService.recommend(userId,
+            dto.getSellerList(), dto.getLimit());
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "판매자별 추천 쿠폰 목록", response);
+    }
+
 }
@@ -1,17 +1,12 @@
 package com.feelmycode.parabole.controller;
 
-import com.feelmycode.parabole.domain.Order;
 import com.feelmycode.parabole.dto.OrderInfoListDto;
 import com.feelmycode.parabole.dto.OrderInfoRequestDto;
 import com.feelmycode.parabole.dto.OrderInfoResponseDto;
-import com.feelmycode.parabole.dto.OrderInfoSimpleDto;
 import com.feelmycode.parabole.dto.OrderResponseDto;
 import com.feelmycode.parabole.global.api.ParaboleResponse;
-import com.feelmycode.parabole.global.error.exception.ParaboleException;
 import com.feelmycode.parabole.service.OrderInfoService;
-import com.feelmycode.parabole.service.OrderService;
 import com.feelmycode.parabole.service.UpdateService;
-import com.feelmycode.parabole.service.UserService;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -32,26 +27,12 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class OrderInfoController {
 
-    private static final Long DELIVERY_FEE = 0L;
-
-    private final OrderService orderService;
     private final OrderInfoService orderInfoService;
     private final UpdateService updateService;
-    private final UserService userService;
 
     @PostMapping
     public ResponseEntity<ParaboleResponse> createOrderInfo(@RequestAttribute("userId") Long userId, @RequestBody OrderInfoListDto orderInfoListDto) {
-        try {
-            orderService.checkOrderState(userId);
-            orderService.createOrder(new Order(userService.getUser(userId), DELIVERY_FEE));
-
-            for (OrderInfoSimpleDto orderInfo : orderInfoListDto.getOrderInfoDto()) {
-                orderInfoService.saveOrderInfo(userId, orderInfo);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new ParaboleException(HttpStatus.BAD_REQUEST, "결제할 상품을 추가할 수 없습니다.");
-        }
+        orderInfoService.checkout(userId, orderInfoListDto.getOrderInfoDto());
         return ParaboleResponse.CommonResponse(HttpStatus.CREATED, true, "결제목록에 상품을 추가했습니다.");
     }
 
@@ -1,15 +1,22 @@
 package com.feelmycode.parabole.controller;
 
 import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.dto.ProductCursorResponseDto;
 import com.feelmycode.parabole.dto.ProductDetailListResponseDto;
 import com.feelmycode.parabole.dto.ProductDto;
+import com.feelmycode.parabole.dto.ProductFacetDto;
+import com.feelmycode.parabole.dto.ProductListResponseDto;
 import com.feelmycode.parabole.dto.ProductRequestDto;
 import com.feelmycode.parabole.dto.ProductResponseDto;
+import com.feelmycode.parabole.enumtype.RankingType;
 import com.feelmycode.parabole.global.api.ParaboleResponse;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
 import com.feelmycode.parabole.global.util.StringUtil;
+import com.feelmycode.parabole.infra.ProductCatalogCache;
 import com.feelmycode.parabole.service.ProductDetailService;
 import com.feelmycode.parabole.service.ProductService;
+import com.feelmycode.parabole.service.ProductStockService;
+import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +24,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -39,12 +47,17 @@ public class ProductController {
     private final static int DEFAULT_SIZE = 20;
     private final ProductService productService;
     private final ProductDetailService productDetailService;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductStockService productStockService;
 
     @GetMapping("/list")
     public ResponseEntity<ParaboleResponse> getProductList(@RequestParam(required = false) String sellerId,
                                             @RequestParam(required = false) String storeName,
                                             @RequestParam(required = false) String category,
                                             @RequestParam(required = false) String productName,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) String ranking,
+                                            @RequestParam(required = false, defaultValue = "false") boolean withFacets,
                                             @PageableDefault(size = DEFAULT_SIZE) Pageable pageable) {
 
         Long getSellerId = 0L;
@@ -60,13 +73,44 @@ public class ProductController {
             }
         }
 
+        // ranking 파라미터(best, trending)가 있으면 인기순으로 조회한다. 카테고리 외의 조건은 적용하지 않는다.
+        if (!StringUtil.controllerParamIsBlank(ranking)) {
+            RankingType rankingType = RankingType.returnValueByName(ranking);
+            if (rankingType == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "지원하지 않는 정렬입니다. 상품목록 조회에 실패했습니다.");
+            }
+            Page<ProductDto> response = productService.getRankedProductList(rankingType, getCategory, pageable);
+            return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 전시", response);
+        }
+
+        // cursor 파라미터가 있으면(빈 값이면 첫 페이지) 전체 건수 없이 커서 기반으로 조회한다.
+        if (cursor != null) {
+            ProductCursorResponseDto response = productService.getProductSlice(getSellerId, getStoreName,
+                getProductName, getCategory, cursor, pageable.getPageSize());
+            return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 전시", response);
+        }
+
         log.info("getProductList - getSellerId : {} / getStoreName : {} / getProductName : {} / getCategory : {} / getPageable : {}", getSellerId, getStoreName, getProductName, getCategory, pageable);
         Page<ProductDto> response = productService.getProductList(getSellerId, getStoreName,
             getProductName, getCategory, pageable);
 
+        // withFacets 이면 카테고리별, 판매자별 상품 수를 함께 내려준다.
+        if (withFacets) {
+            ProductFacetDto facets = productService.getProductFacets(getSellerId, getStoreName);
+            return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 전시",
+                new ProductListResponseDto(response, facets));
+        }
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 전시", response);
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<ParaboleResponse> getProductFacets(@RequestParam(required = false) Long sellerId,
+        @RequestParam(required = false) String storeName) {
+        ProductFacetDto response = productService.getProductFacets(sellerId == null ? 0L : sellerId,
+            StringUtil.controllerParamIsBlank(storeName) ? "" : storeName);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 수 조회", response);
+    }
+
     @GetMapping("/data")
     public ProductResponseDto getProducts(@RequestParam Long productId) {
         Product response = productService.getProduct(productId);
@@ -80,19 +124,57 @@ public class ProductController {
         return ParaboleResponse.CommonResponse(HttpStatus.CREATED, true, "상품 생성", productId);
     }
 
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<ParaboleResponse> deleteProduct(@RequestAttribute("userId") Long userId,
+        @PathVariable("productId") Long productId) {
+        productService.deleteProduct(userId, productId);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 삭제");
+    }
+
     @GetMapping
     public ResponseEntity<ParaboleResponse> getProduct(@RequestParam Long productId) {
         ProductDetailListResponseDto response = productService.getProductDetail(productId);
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 상세 정보", response);
     }
 
+    @GetMapping("/details")
+    public ResponseEntity<ParaboleResponse> getProductDetails(@RequestParam List<Long> productIds) {
+        List<ProductDetailListResponseDto> response = productService.getProductDetails(productIds);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 상세 정보 목록", response);
+    }
+
     @GetMapping("/seller/list")
-    public ResponseEntity<ParaboleResponse> getProductBySellerId(@RequestAttribute Long sellerId, @PageableDefault(size = DEFAULT_SIZE) Pageable pageable) {
+    public ResponseEntity<ParaboleResponse> getProductBySellerId(@RequestAttribute Long sellerId,
+        @RequestParam(required = false) String cursor, @PageableDefault(size = DEFAULT_SIZE) Pageable pageable) {
         log.info("Get Product By Seller Id : {} ", sellerId);
+        if (cursor != null) {
+            ProductCursorResponseDto response = productService.getProductSlice(sellerId, "", "", "", cursor,
+                pageable.getPageSize());
+            return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "판매자가 등록한 상품 목록", response);
+        }
         Page<ProductDto> response = productService.getProductList(sellerId, "", "", "", pageable);
         return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "판매자가 등록한 상품 목록", response);
     }
 
+    @PostMapping("/{productId}/flash-sale")
+    public ResponseEntity<ParaboleResponse> openFlashSale(@RequestAttribute Long sellerId,
+        @PathVariable("productId") Long productId) {
+        Long remains = productStockService.openFlashSale(sellerId, productId);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "타임세일 등록", remains);
+    }
+
+    @DeleteMapping("/{productId}/flash-sale")
+    public ResponseEntity<ParaboleResponse> closeFlashSale(@RequestAttribute Long sellerId,
+        @PathVariable("productId") Long productId) {
+        productStockService.closeFlashSale(sellerId, productId);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "타임세일 종료");
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ParaboleResponse> getCacheStats() {
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "상품 캐시 통계", productCatalogCache.getStats());
+    }
+
     @GetMapping("/{productId}/stock/{stock}")
     public Boolean setProductRemains(@PathVariable("productId") Long productId,
         @PathVariable("stock") Integer stock) {
@@ -0,0 +1,32 @@
+package com.feelmycode.parabole.controller;
+
+import com.feelmycode.parabole.dto.StockAdjustRequestDto;
+import com.feelmycode.parabole.dto.StockAdjustResultDto;
+import com.feelmycode.parabole.global.api.ParaboleResponse;
+import com.feelmycode.parabole.service.StockAdjustService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/stock")
+@RequiredArgsConstructor
+@Slf4j
+public class StockController {
+
+    private final StockAdjustService stockAdjustService;
+
+    /** 이벤트 서버의 상품/쿠폰 재고 증감을 한 번에 반영한다. 결과는 요청 순서대로 항목별로 돌려준다. */
+    @PostMapping("/batch")
+    public ResponseEntity<ParaboleResponse> adjustStock(@RequestBody StockAdjustRequestDto dto) {
+        log.info("Adjust Stock By Event Server : {} items", dto.getItemList() == null ? 0 : dto.getItemList().size());
+        List<StockAdjustResultDto> response = stockAdjustService.adjust(dto);
+        return ParaboleResponse.CommonResponse(HttpStatus.OK, true, "재고 일괄 반영", response);
+    }
+}
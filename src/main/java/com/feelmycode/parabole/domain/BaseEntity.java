@@ -29,6 +29,11 @@ public class BaseEntity {
   @Column(name = "is_deleted")
   @ColumnDefault("false")
   boolean isDeleted;
-  
+
+  public void delete() {
+    this.isDeleted = true;
+    this.deletedAt = LocalDateTime.now();
+  }
+
 }
 
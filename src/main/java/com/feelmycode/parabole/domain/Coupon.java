@@ -1,5 +1,6 @@
 package com.feelmycode.parabole.domain;
 
+import com.feelmycode.parabole.enumtype.CouponStockMode;
 import com.feelmycode.parabole.enumtype.CouponType;
 import com.feelmycode.parabole.enumtype.CouponUseState;
 import com.sun.istack.NotNull;
@@ -17,17 +18,21 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Getter
 @NoArgsConstructor
 @Entity
-@Table(name = "coupons")
+@DynamicUpdate
+@Table(name = "coupons", indexes = @Index(name = "idx_coupons_seller_expires_at", columnList = "seller_id, coupon_expires_at"))
 public class Coupon extends BaseEntity implements Serializable {
 
     @Id
@@ -68,6 +73,35 @@ public class Coupon extends BaseEntity implements Serializable {
     @NotNull
     private Integer cnt;                       // 발행할 쿠폰의 수량
 
+    @Column(name = "coupon_stock_mode")
+    @Enumerated(EnumType.STRING)
+    private CouponStockMode stockMode;
+
+    // 아래 카운터는 CouponRepository 의 조건부 update 로만 변경한다.
+    @Column(name = "coupon_issued_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer issuedCnt = 0;             // 생성된 UserCoupon 의 수량
+
+    @Column(name = "coupon_assigned_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer assignedCnt = 0;           // 사용자에게 배정된 수량
+
+    @Column(name = "coupon_enrolled_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer enrolledCnt = 0;           // 이벤트 경품으로 등록된 수량
+
+    @Column(name = "coupon_used_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer usedCnt = 0;               // 사용 완료된 수량
+
+    @Column(name = "coupon_expired_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer expiredCnt = 0;            // 미사용 상태로 만료된 수량
+
+    @Column(name = "coupon_expired_free_cnt", nullable = false)
+    @ColumnDefault("0")
+    private Integer expiredFreeCnt = 0;        // 배정되지 않은 채 만료된 수량 (expiredCnt 에 포함)
+
     @OneToMany(mappedBy = "coupon", cascade = CascadeType.ALL)
     private List<UserCoupon> userCoupons = new ArrayList<>();
 
@@ -82,6 +116,15 @@ public class Coupon extends BaseEntity implements Serializable {
         this.expiresAt = expiresAt;
         this.detail = detail;
         this.cnt = cnt;
+        this.stockMode = CouponStockMode.MATERIALIZED;
+    }
+
+    public Coupon(String name, Seller seller, CouponType type, Integer discountValue,
+        LocalDateTime validAt, LocalDateTime expiresAt, String detail, Integer cnt,
+        CouponStockMode stockMode) {
+
+        this(name, seller, type, discountValue, validAt, expiresAt, detail, cnt);
+        this.stockMode = stockMode;
     }
 
     public Coupon(Long id, String name, Integer discountValue, Integer cnt) {
@@ -97,29 +140,29 @@ public class Coupon extends BaseEntity implements Serializable {
         this.expiresAt = expiresAt;
     }
 
+    public boolean isVirtualStock() {
+        return stockMode == CouponStockMode.VIRTUAL;
+    }
+
+    /** 아직 배정되지도, 이벤트에 등록되지도, 배정되지 않은 채 만료되지도 않은 수량 */
+    public int getRemains() {
+        int base = isVirtualStock() ? cnt : issuedCnt;
+        return base - assignedCnt - enrolledCnt - expiredFreeCnt;
+    }
+
     public void addUserCoupon(UserCoupon userCoupon) {
 //        userCoupon.setCoupon(this);
         this.userCoupons.add(userCoupon);
     }
 
     public int getUsedUserCouponCnt() {
-        int cnt = 0;
-        for (UserCoupon uc : userCoupons) {
-            if (uc.getUseState().equals(CouponUseState.Used)) {
-                cnt++;
-            }
-        }
-        return cnt;
+        return usedCnt;
     }
 
+    /** NotUsed 상태인 UserCoupon 의 수량. MATERIALIZED 모드의 이벤트 등록분은 EventEnrolled 상태이다. */
     public int getNotUsedUserCouponCnt() {
-        int cnt = 0;
-        for (UserCoupon uc : userCoupons) {
-            if (uc.getUseState().equals(CouponUseState.NotUsed)) {
-                cnt++;
-            }
-        }
-        return cnt;
+        int notUsed = issuedCnt - usedCnt - expiredCnt;
+        return isVirtualStock() ? notUsed : notUsed - enrolledCnt;
     }
 
     public List<UserCoupon> getUsedUserCouponList() {
@@ -143,16 +186,4 @@ public class Coupon extends BaseEntity implements Serializable {
         }
         return list;
     }
-
-    public void setCouponForEvent(Integer inputStock) {
-        userCoupons.stream().limit(inputStock)
-            .filter(userCoupon -> userCoupon.getUseState().equals(CouponUseState.NotUsed))
-            .forEach(UserCoupon::setEventEnrolled);
-    }
-
-    public void cancelCouponEvent(Integer inputStock) {
-        userCoupons.stream().limit(inputStock)
-            .filter(userCoupon -> userCoupon.getUseState().equals(CouponUseState.EventEnrolled))
-            .forEach(UserCoupon::setNotUsed);
-    }
 }
@@ -0,0 +1,72 @@
+package com.feelmycode.parabole.domain;
+
+import com.feelmycode.parabole.enumtype.CouponIssueState;
+import com.sun.istack.NotNull;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "coupon_issue_jobs")
+public class CouponIssueJob extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "coupon_issue_job_id")
+    private Long id;
+
+    @Column(name = "coupon_id")
+    @NotNull
+    private Long couponId;
+
+    @Column(name = "issue_total_cnt")
+    @NotNull
+    private Integer totalCnt;                  // 발행해야 하는 전체 수량
+
+    @Column(name = "issue_issued_cnt")
+    @NotNull
+    private Integer issuedCnt;                 // 현재까지 발행(insert)된 수량
+
+    @Column(name = "issue_state")
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private CouponIssueState state;
+
+    @Column(name = "issue_fail_message", length = 500)
+    private String failMessage;
+
+    public CouponIssueJob(Long couponId, Integer totalCnt) {
+        this.couponId = couponId;
+        this.totalCnt = totalCnt;
+        this.issuedCnt = 0;
+        this.state = totalCnt > 0 ? CouponIssueState.READY : CouponIssueState.DONE;
+    }
+
+    public void issued(int cnt) {
+        this.issuedCnt += cnt;
+        this.state = issuedCnt >= totalCnt ? CouponIssueState.DONE : CouponIssueState.IN_PROGRESS;
+    }
+
+    public void fail(String failMessage) {
+        this.state = CouponIssueState.FAILED;
+        this.failMessage = failMessage != null && failMessage.length() > 500
+            ? failMessage.substring(0, 500) : failMessage;
+    }
+
+    public int getRemainCnt() {
+        return totalCnt - issuedCnt;
+    }
+
+    public boolean isFinished() {
+        return state == CouponIssueState.DONE || state == CouponIssueState.FAILED;
+    }
+}
@@ -0,0 +1,72 @@
+package com.feelmycode.parabole.domain;
+
+import com.feelmycode.parabole.enumtype.CouponReservationState;
+import com.sun.istack.NotNull;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** 이벤트 경품으로 잡아둔 쿠폰 수량. (이벤트, 쿠폰) 마다 한 행이며 재시도 요청을 걸러내는 데 쓴다. */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "coupon_reservations", uniqueConstraints = @UniqueConstraint(
+    name = "ux_coupon_reservations_event_coupon", columnNames = {"event_id", "coupon_id"}))
+public class CouponReservation extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "coupon_reservation_id")
+    private Long id;
+
+    @Column(name = "event_id")
+    @NotNull
+    private Long eventId;
+
+    @Column(name = "coupon_id")
+    @NotNull
+    private Long couponId;
+
+    @Column(name = "reservation_requested_cnt")
+    @NotNull
+    private Integer requestedCnt;
+
+    @Column(name = "reservation_reserved_cnt")
+    @NotNull
+    private Integer reservedCnt;               // 실제로 EventEnrolled 로 옮긴 수량
+
+    @Column(name = "reservation_state")
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private CouponReservationState state;
+
+    public CouponReservation(Long eventId, Long couponId) {
+        this.eventId = eventId;
+        this.couponId = couponId;
+        this.requestedCnt = 0;
+        this.reservedCnt = 0;
+        this.state = CouponReservationState.CANCELED;
+    }
+
+    public boolean isReserved() {
+        return state == CouponReservationState.RESERVED;
+    }
+
+    public void reserved(int requestedCnt, int reservedCnt) {
+        this.requestedCnt = requestedCnt;
+        this.reservedCnt = reservedCnt;
+        this.state = CouponReservationState.RESERVED;
+    }
+
+    public void cancel() {
+        this.state = CouponReservationState.CANCELED;
+    }
+}
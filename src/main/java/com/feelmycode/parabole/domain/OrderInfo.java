@@ -67,6 +67,10 @@ public class OrderInfo extends BaseEntity {
     @Column(name = "seller_store_name")
     private String sellerStoreName;
 
+    // 주문할 때의 상품 미리보기 이미지
+    @Column(name = "product_thumbnail_img")
+    private String productThumbnailImg;
+
     public void setState(Integer state) {
         this.state = state;
     }
@@ -98,7 +102,7 @@ public class OrderInfo extends BaseEntity {
     public OrderInfoResponseDto toDto() {
         return new OrderInfoResponseDto(id, OrderInfoState.returnNameByValue(state).getState(),
             order.getUser().getEmail(), productId, productName, productCnt, productPrice,
-            productDiscountPrice, "", getUpdatedAt());
+            productDiscountPrice, productThumbnailImg == null ? "" : productThumbnailImg, getUpdatedAt());
     }
 
 }
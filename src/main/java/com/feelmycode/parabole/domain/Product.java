@@ -4,6 +4,7 @@ import com.feelmycode.parabole.global.error.exception.NoDataException;
 import com.sun.istack.NotNull;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -11,6 +12,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -19,7 +21,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_seller_deleted_id", columnList = "seller_id, is_deleted, product_id"),
+    @Index(name = "idx_products_category_deleted_id", columnList = "product_category, is_deleted, product_id"),
+    @Index(name = "idx_products_thumbnail_derived", columnList = "product_thumbnail_derived")
+})
 @Getter
 @NoArgsConstructor
 public class Product extends BaseEntity {
@@ -57,6 +63,10 @@ public class Product extends BaseEntity {
     @NotNull
     private String thumbnailImg;
 
+    // 썸네일의 크기별 축소본이 있으면 true, 만들 수 없는 이미지면 false, 아직 만들지 않았으면 null
+    @Column(name = "product_thumbnail_derived")
+    private Boolean thumbnailDerived;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
     private List<ProductDetail> productDetailList = new ArrayList<>();
 
@@ -73,6 +83,9 @@ public class Product extends BaseEntity {
     }
 
     public void setThumbnailImg(String thumbnailImg) {
+        if (!Objects.equals(this.thumbnailImg, thumbnailImg)) {
+            this.thumbnailDerived = null;
+        }
         this.thumbnailImg = thumbnailImg;
     }
 
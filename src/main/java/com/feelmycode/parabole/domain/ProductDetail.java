@@ -6,13 +6,17 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import java.util.Objects;
 import lombok.Getter;
 
 @Entity
-@Table(name = "product_details")
+@Table(name = "product_details", indexes = {
+    @Index(name = "idx_product_details_img_derived", columnList = "product_detail_img_derived")
+})
 @Getter
 public class ProductDetail {
 
@@ -27,6 +31,10 @@ public class ProductDetail {
     @Column(name = "product_detail_img")
     private String img;
 
+    // 크기별 축소본이 있으면 true, 만들 수 없는 이미지면 false, 아직 만들지 않았으면 null
+    @Column(name = "product_detail_img_derived")
+    private Boolean imgDerived;
+
     @Column(name = "product_detail_img_caption")
     private String imgCaption;
 
@@ -35,6 +43,9 @@ public class ProductDetail {
     }
 
     private void setImg(String img) {
+        if (!Objects.equals(this.img, img)) {
+            this.imgDerived = null;
+        }
         this.img = img;
     }
 
@@ -0,0 +1,45 @@
+package com.feelmycode.parabole.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 상품 판매 순위 스냅샷. 메모리 순위(ProductRankingBoard)가 주기적으로 저장하고 시작할 때 읽어 복원한다.
+ * trend_score 는 updated_at 시점을 기준으로 한 점수라서, 읽을 때 그 뒤로 지난 시간만큼 감쇠시킨다.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "product_rankings")
+public class ProductRanking {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "product_category")
+    private String category;
+
+    @Column(name = "sales_count")
+    private Long salesCount;
+
+    @Column(name = "trend_score")
+    private Double trendScore;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ProductRanking(Long productId, String category, Long salesCount, Double trendScore,
+        LocalDateTime updatedAt) {
+        this.productId = productId;
+        this.category = category;
+        this.salesCount = salesCount;
+        this.trendScore = trendScore;
+        this.updatedAt = updatedAt;
+    }
+}
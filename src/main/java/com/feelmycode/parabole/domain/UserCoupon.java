@@ -2,7 +2,7 @@ package com.feelmycode.parabole.domain;
 
 import com.feelmycode.parabole.enumtype.CouponUseState;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
-import com.feelmycode.parabole.global.util.UuidApp;
+import com.feelmycode.parabole.global.util.CouponSerialApp;
 import com.sun.istack.NotNull;
 import java.time.LocalDateTime;
 import javax.persistence.Column;
@@ -13,6 +13,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
@@ -22,7 +23,10 @@ import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 
 @Entity
-@Table(name = "user_coupons")
+@Table(name = "user_coupons", indexes = {
+    @Index(name = "ux_user_coupons_serial_no", columnList = "serial_no", unique = true),
+    @Index(name = "idx_user_coupons_coupon_state", columnList = "coupon_id, coupon_use_state"),
+    @Index(name = "idx_user_coupons_state_updated_at", columnList = "coupon_use_state, updated_at")})
 @Getter
 @NoArgsConstructor
 public class UserCoupon extends BaseEntity {
@@ -35,7 +39,7 @@ public class UserCoupon extends BaseEntity {
     @OneToOne(fetch = FetchType.LAZY)
     private OrderInfo orderInfo;
 
-    @Column(name = "serial_no")
+    @Column(name = "serial_no", length = 36)
     private String serialNo;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -60,7 +64,7 @@ public class UserCoupon extends BaseEntity {
     private LocalDateTime useDate;
 
     public UserCoupon(Coupon coupon) {
-        this.serialNo = UuidApp.generator();
+        this.serialNo = CouponSerialApp.generator();
         this.coupon = coupon;
         this.user = null;
         this.useState = CouponUseState.NotUsed;
@@ -0,0 +1,58 @@
+package com.feelmycode.parabole.domain;
+
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 사용 완료되었거나 만료된 뒤 보관 기간이 지난 user_coupons 행.
+ * 쿠폰 만료 작업이 user_coupons 에서 옮겨 담으며, 애플리케이션에서는 조회만 한다.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_coupon_archives", indexes = {
+    @Index(name = "idx_user_coupon_archives_user_id", columnList = "user_id"),
+    @Index(name = "idx_user_coupon_archives_serial_no", columnList = "serial_no")})
+public class UserCouponArchive {
+
+    @Id
+    @Column(name = "user_coupon_id")
+    private Long id;
+
+    @Column(name = "serial_no", length = 36)
+    private String serialNo;
+
+    @Column(name = "coupon_id")
+    private Long couponId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "coupon_use_state")
+    @Enumerated(EnumType.STRING)
+    private CouponUseState useState;
+
+    @Column(name = "coupon_acquisition_date")
+    private LocalDateTime acquiredDate;
+
+    @Column(name = "coupon_use_date")
+    private LocalDateTime useDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
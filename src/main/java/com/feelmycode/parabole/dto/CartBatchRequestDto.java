@@ -0,0 +1,33 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CartBatchRequestDto {
+
+    private List<CartAddItemRequestDto> addList;          // 새로 담을 상품
+    private List<CartItemUpdateRequestDto> updateList;    // 수량을 바꿀 장바구니 상품
+    private List<Long> deleteList;                        // 지울 장바구니 상품 아이디
+
+    public CartBatchRequestDto(List<CartAddItemRequestDto> addList, List<CartItemUpdateRequestDto> updateList,
+        List<Long> deleteList) {
+        this.addList = addList;
+        this.updateList = updateList;
+        this.deleteList = deleteList;
+    }
+
+    public List<CartAddItemRequestDto> getAddList() {
+        return addList == null ? List.of() : addList;
+    }
+
+    public List<CartItemUpdateRequestDto> getUpdateList() {
+        return updateList == null ? List.of() : updateList;
+    }
+
+    public List<Long> getDeleteList() {
+        return deleteList == null ? List.of() : deleteList;
+    }
+}
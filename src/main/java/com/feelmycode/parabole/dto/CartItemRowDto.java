@@ -0,0 +1,17 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CartItemRowDto {
+
+    private Long cartItemId;
+    private Long productId;
+    private Integer cnt;
+
+    public CartItemRowDto(Long cartItemId, Long productId, Integer cnt) {
+        this.cartItemId = cartItemId;
+        this.productId = productId;
+        this.cnt = cnt;
+    }
+}
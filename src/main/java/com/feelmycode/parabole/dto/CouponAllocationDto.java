@@ -0,0 +1,17 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CouponAllocationDto {
+
+    private Long sellerId;
+    private Long totalFee;
+    private CouponInfoDto coupon;                  // 적용할 쿠폰이 없으면 null
+
+    public CouponAllocationDto(Long sellerId, Long totalFee, CouponInfoDto coupon) {
+        this.sellerId = sellerId;
+        this.totalFee = totalFee;
+        this.coupon = coupon;
+    }
+}
@@ -0,0 +1,16 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class CouponAllocationResponseDto {
+
+    private Long totalDiscount;
+    private List<CouponAllocationDto> allocationList;
+
+    public CouponAllocationResponseDto(Long totalDiscount, List<CouponAllocationDto> allocationList) {
+        this.totalDiscount = totalDiscount;
+        this.allocationList = allocationList;
+    }
+}
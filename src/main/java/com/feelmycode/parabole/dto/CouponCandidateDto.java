@@ -0,0 +1,34 @@
+package com.feelmycode.parabole.dto;
+
+import com.feelmycode.parabole.enumtype.CouponType;
+import lombok.Getter;
+
+/** 주문에 적용 가능한 사용자 쿠폰 한 장. 추천 계산용 프로젝션 */
+@Getter
+public class CouponCandidateDto {
+
+    private final String serialNo;
+    private final String couponName;
+    private final CouponType type;
+    private final Integer discountValue;
+    private final Long sellerId;
+    private final String storeName;
+
+    public CouponCandidateDto(String serialNo, String couponName, CouponType type, Integer discountValue,
+        Long sellerId, String storeName) {
+        this.serialNo = serialNo;
+        this.couponName = couponName;
+        this.type = type;
+        this.discountValue = discountValue;
+        this.sellerId = sellerId;
+        this.storeName = storeName;
+    }
+
+    /** 주문 금액에 적용했을 때의 할인 금액 */
+    public long discountFor(Long totalFee) {
+        if (type == CouponType.RATE) {
+            return totalFee * discountValue / 100;
+        }
+        return discountValue;
+    }
+}
@@ -15,6 +15,7 @@ public class CouponCreateRequestDto {
         private LocalDateTime expiresAt;
         private String detail;
         private Integer cnt;
+        private Integer stockMode;          // 재고 관리 방식 ( 미리생성1  배정시생성2 ), 생략하면 1
 
         public CouponCreateRequestDto(String name, Integer type, Integer discountValue,
             LocalDateTime validAt, LocalDateTime expiresAt, String detail, Integer cnt) {
@@ -27,4 +28,11 @@ public class CouponCreateRequestDto {
                 this.cnt = cnt;
         }
 
+        public CouponCreateRequestDto(String name, Integer type, Integer discountValue,
+            LocalDateTime validAt, LocalDateTime expiresAt, String detail, Integer cnt,
+            Integer stockMode) {
+                this(name, type, discountValue, validAt, expiresAt, detail, cnt);
+                this.stockMode = stockMode;
+        }
+
 }
@@ -12,13 +12,17 @@ public class CouponCreateResponseDto {
     private String sellerStorename;
     private String type;
     private Integer cnt;
+    private Long issueJobId;
+    private String issueState;
 
     public CouponCreateResponseDto(Long couponId, String couponName, String sellerStorename, String type,
-        Integer cnt) {
+        Integer cnt, Long issueJobId, String issueState) {
         this.couponId = couponId;
         this.couponName = couponName;
         this.sellerStorename = sellerStorename;
         this.type = type;
         this.cnt = cnt;
+        this.issueJobId = issueJobId;
+        this.issueState = issueState;
     }
 }
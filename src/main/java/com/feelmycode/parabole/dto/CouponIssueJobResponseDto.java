@@ -0,0 +1,29 @@
+package com.feelmycode.parabole.dto;
+
+import com.feelmycode.parabole.domain.CouponIssueJob;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CouponIssueJobResponseDto {
+
+    private Long jobId;
+    private Long couponId;
+    private String state;
+    private Integer totalCnt;
+    private Integer issuedCnt;
+    private Integer progress;               // 발행 진행률(%)
+    private String failMessage;
+
+    public CouponIssueJobResponseDto(CouponIssueJob job) {
+        this.jobId = job.getId();
+        this.couponId = job.getCouponId();
+        this.state = job.getState().getState();
+        this.totalCnt = job.getTotalCnt();
+        this.issuedCnt = job.getIssuedCnt();
+        this.progress = job.getTotalCnt() == 0 ? 100
+            : (int) ((long) job.getIssuedCnt() * 100 / job.getTotalCnt());
+        this.failMessage = job.getFailMessage();
+    }
+}
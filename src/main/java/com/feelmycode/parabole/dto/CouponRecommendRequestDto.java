@@ -0,0 +1,18 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CouponRecommendRequestDto {
+
+    private List<CouponRequestDto> sellerList;     // 판매자별 주문 금액
+    private Integer limit;                         // 판매자별로 돌려줄 쿠폰 수
+
+    public CouponRecommendRequestDto(List<CouponRequestDto> sellerList, Integer limit) {
+        this.sellerList = sellerList;
+        this.limit = limit;
+    }
+}
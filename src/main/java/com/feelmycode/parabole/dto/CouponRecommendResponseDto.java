@@ -0,0 +1,18 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class CouponRecommendResponseDto {
+
+    private Long sellerId;
+    private Integer totalFee;
+    private List<CouponInfoDto> couponList;        // 할인 금액이 큰 순서
+
+    public CouponRecommendResponseDto(Long sellerId, Integer totalFee, List<CouponInfoDto> couponList) {
+        this.sellerId = sellerId;
+        this.totalFee = totalFee;
+        this.couponList = couponList;
+    }
+}
@@ -0,0 +1,30 @@
+package com.feelmycode.parabole.dto;
+
+import com.feelmycode.parabole.domain.CouponReservation;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CouponReservationResponseDto {
+
+    private Long eventId;
+    private Long couponId;
+    private String state;
+    private Integer requestedCnt;
+    private Integer reservedCnt;
+    private Integer releasedCnt;           // 취소 요청으로 이번에 되돌린 수량
+
+    public CouponReservationResponseDto(CouponReservation reservation) {
+        this.eventId = reservation.getEventId();
+        this.couponId = reservation.getCouponId();
+        this.state = reservation.getState().getState();
+        this.requestedCnt = reservation.getRequestedCnt();
+        this.reservedCnt = reservation.getReservedCnt();
+    }
+
+    public CouponReservationResponseDto(CouponReservation reservation, int releasedCnt) {
+        this(reservation);
+        this.releasedCnt = releasedCnt;
+    }
+}
@@ -27,7 +27,7 @@ public class CouponSellerResponseDto {
                 this.expiresAt = coupon.getExpiresAt();
                 this.detail = coupon.getDetail();
                 this.cnt = coupon.getCnt();
-                this.remains = coupon.getNotAssignedUserCouponList().size();
+                this.remains = coupon.getRemains();
         }
 
 }
@@ -0,0 +1,19 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CouponStockDto {
+
+    private Long couponId;
+    private boolean virtualStock;
+    private Long remains;           // 배정도 이벤트 등록도 되지 않은 수량
+    private Long enrolledCnt;       // 이벤트 경품으로 등록된 수량
+
+    public CouponStockDto(Long couponId, boolean virtualStock, Long remains, Long enrolledCnt) {
+        this.couponId = couponId;
+        this.virtualStock = virtualStock;
+        this.remains = remains;
+        this.enrolledCnt = enrolledCnt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class ProductCursorResponseDto {
+
+    private List<ProductDto> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;      // 다음 페이지 요청 시 그대로 전달. 마지막 페이지면 null
+
+    public ProductCursorResponseDto(List<ProductDto> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,6 +1,8 @@
 package com.feelmycode.parabole.dto;
 
 import com.feelmycode.parabole.domain.ProductDetail;
+import com.feelmycode.parabole.enumtype.ImageSize;
+import java.util.Map;
 import lombok.Getter;
 
 @Getter
@@ -9,13 +11,24 @@ public class ProductDetailDto {
     private final Long productDetailId;
     private final Long productId;
     private final String img;
+    // 크기별 축소본 URL (list, card, detail). 축소본이 아직 없으면 원본 URL
+    private final Map<String, String> imgs;
     private final String imgCaption;
 
     public ProductDetailDto(ProductDetail productDetail) {
         this.productDetailId = productDetail.getId();
         this.productId = productDetail.getProduct().getId();
         this.img = productDetail.getImg();
+        this.imgs = ImageSize.deriveAll(productDetail.getImg(), productDetail.getImgDerived());
         this.imgCaption = productDetail.getImgCaption();
     }
 
+    public ProductDetailDto(ProductDetailRowDto row) {
+        this.productDetailId = row.getProductDetailId();
+        this.productId = row.getProductId();
+        this.img = row.getImg();
+        this.imgs = ImageSize.deriveAll(row.getImg(), row.getImgDerived());
+        this.imgCaption = row.getImgCaption();
+    }
+
 }
@@ -0,0 +1,53 @@
+package com.feelmycode.parabole.dto;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+
+/** 상품 상세 조회 프로젝션의 한 행. 상품 정보와 상세 이미지 하나(없으면 null)가 들어있다. */
+@Getter
+public class ProductDetailRowDto {
+
+    private final Long productId;
+    private final String productName;
+    private final Long sellerId;
+    private final String storeName;
+    private final Integer productStatus;
+    private final Long productRemains;
+    private final Long productPrice;
+    private final String productCategory;
+    private final String productThumbnailImg;
+    private final Boolean productThumbnailDerived;
+    private final LocalDateTime productCreatedAt;
+    private final LocalDateTime productUpdatedAt;
+    private final LocalDateTime productDeletedAt;
+    private final boolean productIsDeleted;
+    private final Long productDetailId;
+    private final String img;
+    private final Boolean imgDerived;
+    private final String imgCaption;
+
+    public ProductDetailRowDto(Long productId, String productName, Long sellerId, String storeName,
+        Integer productStatus, Long productRemains, Long productPrice, String productCategory,
+        String productThumbnailImg, Boolean productThumbnailDerived, LocalDateTime productCreatedAt,
+        LocalDateTime productUpdatedAt, LocalDateTime productDeletedAt, boolean productIsDeleted,
+        Long productDetailId, String img, Boolean imgDerived, String imgCaption) {
+        this.productId = productId;
+        this.productName = productName;
+        this.sellerId = sellerId;
+        this.storeName = storeName;
+        this.productStatus = productStatus;
+        this.productRemains = productRemains;
+        this.productPrice = productPrice;
+        this.productCategory = productCategory;
+        this.productThumbnailImg = productThumbnailImg;
+        this.productThumbnailDerived = productThumbnailDerived;
+        this.productCreatedAt = productCreatedAt;
+        this.productUpdatedAt = productUpdatedAt;
+        this.productDeletedAt = productDeletedAt;
+        this.productIsDeleted = productIsDeleted;
+        this.productDetailId = productDetailId;
+        this.img = img;
+        this.imgDerived = imgDerived;
+        this.imgCaption = imgCaption;
+    }
+}
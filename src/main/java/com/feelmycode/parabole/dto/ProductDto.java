@@ -2,7 +2,9 @@ package com.feelmycode.parabole.dto;
 
 import com.feelmycode.parabole.domain.Product;
 import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.enumtype.ImageSize;
 import java.time.LocalDateTime;
+import java.util.Map;
 import lombok.Getter;
 
 @Getter
@@ -16,6 +18,8 @@ public class ProductDto {
     private final Long productPrice;
     private final String productCategory;
     private final String productThumbnailImg;
+    // 크기별 축소본 URL (list, card, detail). 축소본이 아직 없으면 원본 URL
+    private final Map<String, String> productThumbnailImgs;
     private final LocalDateTime productCreatedAt;
     private final LocalDateTime productUpdatedAt;
     private final LocalDateTime productDeletedAt;
@@ -31,12 +35,30 @@ public class ProductDto {
         this.productPrice = product.getPrice();
         this.productCategory = product.getCategory();
         this.productThumbnailImg = product.getThumbnailImg();
+        this.productThumbnailImgs = ImageSize.deriveAll(product.getThumbnailImg(), product.getThumbnailDerived());
         this.productCreatedAt = product.getCreatedAt();
         this.productUpdatedAt = product.getUpdatedAt();
         this.productDeletedAt = product.getDeletedAt();
         this.productIsDeleted = product.isDeleted();
     }
 
+    public ProductDto(ProductDetailRowDto row) {
+        this.productId = row.getProductId();
+        this.productName = row.getProductName();
+        this.storeName = row.getStoreName();
+        this.sellerId = row.getSellerId();
+        this.productStatus = row.getProductStatus();
+        this.productRemains = row.getProductRemains();
+        this.productPrice = row.getProductPrice();
+        this.productCategory = row.getProductCategory();
+        this.productThumbnailImg = row.getProductThumbnailImg();
+        this.productThumbnailImgs = ImageSize.deriveAll(row.getProductThumbnailImg(), row.getProductThumbnailDerived());
+        this.productCreatedAt = row.getProductCreatedAt();
+        this.productUpdatedAt = row.getProductUpdatedAt();
+        this.productDeletedAt = row.getProductDeletedAt();
+        this.productIsDeleted = row.isProductIsDeleted();
+    }
+
     public Product dtoToEntity() {
         return new Product(productId, new Seller(sellerId, storeName), productStatus, productRemains, productCategory,
             productThumbnailImg, productName, productPrice);
@@ -0,0 +1,16 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.Map;
+import lombok.Getter;
+
+@Getter
+public class ProductFacetDto {
+
+    private Map<String, Long> categories;   // 카테고리 -> 상품 수
+    private Map<Long, Long> sellers;        // 판매자 id -> 상품 수
+
+    public ProductFacetDto(Map<String, Long> categories, Map<Long, Long> sellers) {
+        this.categories = categories;
+        this.sellers = sellers;
+    }
+}
@@ -0,0 +1,17 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class ProductFacetRowDto {
+
+    private Long productId;
+    private Long sellerId;
+    private String category;
+
+    public ProductFacetRowDto(Long productId, Long sellerId, String category) {
+        this.productId = productId;
+        this.sellerId = sellerId;
+        this.category = category;
+    }
+}
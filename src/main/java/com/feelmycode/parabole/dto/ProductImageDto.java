@@ -0,0 +1,18 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+/** 상품의 썸네일 또는 상세 이미지 한 장 */
+@Getter
+public class ProductImageDto {
+
+    private Long id;            // 썸네일이면 상품 id, 상세 이미지면 상세 이미지 id
+    private Long productId;
+    private String url;
+
+    public ProductImageDto(Long id, Long productId, String url) {
+        this.id = id;
+        this.productId = productId;
+        this.url = url;
+    }
+}
@@ -0,0 +1,16 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+@Getter
+public class ProductListResponseDto {
+
+    private Page<ProductDto> products;
+    private ProductFacetDto facets;
+
+    public ProductListResponseDto(Page<ProductDto> products, ProductFacetDto facets) {
+        this.products = products;
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,19 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class ProductStockDto {
+
+    private Long productId;
+    private Long sellerId;
+    private String category;
+    private Long remains;
+
+    public ProductStockDto(Long productId, Long sellerId, String category, Long remains) {
+        this.productId = productId;
+        this.sellerId = sellerId;
+        this.category = category;
+        this.remains = remains;
+    }
+}
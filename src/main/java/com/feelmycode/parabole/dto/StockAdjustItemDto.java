@@ -0,0 +1,21 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class StockAdjustItemDto {
+
+    private String type;        // PrizeType 코드 (PRODUCT, COUPON)
+    private Long id;            // 상품 id 또는 쿠폰 id
+    private Integer stock;      // 음수면 차감, 양수면 복구
+    private Long eventId;       // 쿠폰을 이벤트 경품으로 예약/취소할 때만
+
+    public StockAdjustItemDto(String type, Long id, Integer stock, Long eventId) {
+        this.type = type;
+        this.id = id;
+        this.stock = stock;
+        this.eventId = eventId;
+    }
+}
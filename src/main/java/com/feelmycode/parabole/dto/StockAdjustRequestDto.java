@@ -0,0 +1,16 @@
+package com.feelmycode.parabole.dto;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class StockAdjustRequestDto {
+
+    private List<StockAdjustItemDto> itemList;
+
+    public StockAdjustRequestDto(List<StockAdjustItemDto> itemList) {
+        this.itemList = itemList;
+    }
+}
@@ -0,0 +1,37 @@
+package com.feelmycode.parabole.dto;
+
+import lombok.Getter;
+
+@Getter
+public class StockAdjustResultDto {
+
+    private String type;
+    private Long id;
+    private Integer requested;      // 요청한 증감 수량
+    private Integer applied;        // 실제로 반영된 증감 수량
+    private boolean success;
+    private String message;
+
+    private StockAdjustResultDto(StockAdjustItemDto item, Integer applied, boolean success, String message) {
+        this.type = item.getType();
+        this.id = item.getId();
+        this.requested = item.getStock();
+        this.applied = applied;
+        this.success = success;
+        this.message = message;
+    }
+
+    public static StockAdjustResultDto success(StockAdjustItemDto item) {
+        return new StockAdjustResultDto(item, item.getStock(), true, null);
+    }
+
+    /** 쿠폰처럼 요청 수량의 일부만 반영될 수 있는 경우 */
+    public static StockAdjustResultDto partial(StockAdjustItemDto item, int applied) {
+        boolean success = applied == item.getStock();
+        return new StockAdjustResultDto(item, applied, success, success ? null : "요청한 수량 중 일부만 반영되었습니다.");
+    }
+
+    public static StockAdjustResultDto fail(StockAdjustItemDto item, String message) {
+        return new StockAdjustResultDto(item, 0, false, message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.feelmycode.parabole.dto;
+
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import lombok.Getter;
+
+/** 일련번호 캐시에 보관하는 값. 상태는 참고용이며 변경 시에는 항상 DB 의 행을 다시 읽는다. */
+@Getter
+public class UserCouponSerialDto {
+
+    private final Long userCouponId;
+    private final Long couponId;
+    private final CouponUseState useState;
+
+    public UserCouponSerialDto(Long userCouponId, Long couponId, CouponUseState useState) {
+        this.userCouponId = userCouponId;
+        this.couponId = couponId;
+        this.useState = useState;
+    }
+
+    public UserCouponSerialDto withUseState(CouponUseState useState) {
+        return new UserCouponSerialDto(userCouponId, couponId, useState);
+    }
+}
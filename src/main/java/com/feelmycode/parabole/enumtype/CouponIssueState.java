@@ -0,0 +1,18 @@
+package com.feelmycode.parabole.enumtype;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CouponIssueState {
+
+    READY("READY", 0),
+    IN_PROGRESS("IN_PROGRESS", 1),
+    DONE("DONE", 2),
+    FAILED("FAILED", -1);
+
+    private final String state;
+    private final int value;
+
+}
@@ -0,0 +1,29 @@
+package com.feelmycode.parabole.enumtype;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/** 쿠폰 사용 요청의 결과 */
+@Getter
+@RequiredArgsConstructor
+public enum CouponRedeemResult {
+
+    SUCCESS("SUCCESS", 0, HttpStatus.OK, "쿠폰이 정상적으로 사용되었습니다."),
+    NOT_FOUND("NOT_FOUND", 1, HttpStatus.NOT_FOUND, "해당 일련번호를 가지는 쿠폰이 존재하지 않습니다."),
+    NOT_ASSIGNED("NOT_ASSIGNED", 2, HttpStatus.BAD_REQUEST, "쿠폰에 배정된 사용자가 없습니다. 사용자를 먼저 배정하세요."),
+    NOT_OWNER("NOT_OWNER", 3, HttpStatus.BAD_REQUEST, "사용자의 쿠폰이 아닙니다. 타인의 쿠폰입니다."),
+    EXPIRED("EXPIRED", 4, HttpStatus.BAD_REQUEST, "쿠폰이 만료되어 사용할 수 없습니다."),
+    ALREADY_USED("ALREADY_USED", 5, HttpStatus.BAD_REQUEST, "이미 사용완료된 쿠폰입니다."),
+    NOT_USABLE("NOT_USABLE", 6, HttpStatus.BAD_REQUEST, "사용할 수 없는 상태의 쿠폰입니다.");
+
+    private final String result;
+    private final int value;
+    private final HttpStatus status;
+    private final String message;
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+
+}
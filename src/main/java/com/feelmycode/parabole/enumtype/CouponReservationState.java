@@ -0,0 +1,16 @@
+package com.feelmycode.parabole.enumtype;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CouponReservationState {
+
+    RESERVED("RESERVED", 1),
+    CANCELED("CANCELED", 2);
+
+    private final String state;
+    private final int value;
+
+}
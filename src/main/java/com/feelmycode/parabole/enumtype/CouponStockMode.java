@@ -0,0 +1,25 @@
+package com.feelmycode.parabole.enumtype;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CouponStockMode {
+
+    // MATERIALIZED: 발행 수량만큼 UserCoupon 을 미리 생성
+    // VIRTUAL: 수량은 카운터로만 관리하고 사용자에게 배정될 때 UserCoupon 을 생성
+    MATERIALIZED("MATERIALIZED", 1),
+    VIRTUAL("VIRTUAL", 2);
+
+    private final String name;
+    private final int value;
+
+    public static CouponStockMode returnNameToValue(Integer value) {
+        if (value != null && value == 2) {
+            return CouponStockMode.VIRTUAL;
+        }
+        return CouponStockMode.MATERIALIZED;
+    }
+
+}
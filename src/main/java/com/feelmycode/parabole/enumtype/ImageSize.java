@@ -0,0 +1,44 @@
+package com.feelmycode.parabole.enumtype;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 업로드한 이미지로 만드는 축소본 크기.
+ * 축소본 key 는 원본 key 의 확장자를 떼고 "_{suffix}.jpg" 를 붙인 것으로, URL 도 같은 규칙으로 얻는다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageSize {
+
+    LIST("list", 240),
+    CARD("card", 480),
+    DETAIL("detail", 960);
+
+    public static final String NO_IMAGE = "no_image.png";
+
+    private final String suffix;
+    private final int width;
+
+    /** 원본 key 또는 URL 로 축소본 key 또는 URL 을 만든다. 기본 이미지는 축소본이 없으므로 그대로 반환 */
+    public String derive(String original) {
+        if (original == null || original.endsWith(NO_IMAGE)) {
+            return original;
+        }
+        int slash = original.lastIndexOf('/');
+        int dot = original.lastIndexOf('.');
+        String base = dot > slash ? original.substring(0, dot) : original;
+        return base + "_" + suffix + ".jpg";
+    }
+
+    /** 크기별 URL. 축소본을 만들었다고 기록된 이미지(derived 가 true)가 아니면 모든 크기에 원본을 내려준다. */
+    public static Map<String, String> deriveAll(String original, Boolean derived) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageSize size : values()) {
+            urls.put(size.getSuffix(), Boolean.TRUE.equals(derived) ? size.derive(original) : original);
+        }
+        return urls;
+    }
+}
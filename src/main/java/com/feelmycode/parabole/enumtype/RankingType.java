@@ -0,0 +1,23 @@
+package com.feelmycode.parabole.enumtype;
+
+import java.util.Arrays;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** 상품 목록 인기순 정렬. best : 누적 판매량, trending : 최근 판매일수록 큰 가중치를 둔 판매 점수 */
+@Getter
+@RequiredArgsConstructor
+public enum RankingType {
+
+    BEST("best"),
+    TRENDING("trending");
+
+    private final String name;
+
+    public static RankingType returnValueByName(String name) {
+        return Arrays.stream(values())
+            .filter(rankingType -> rankingType.name.equalsIgnoreCase(name))
+            .findFirst()
+            .orElse(null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.feelmycode.parabole.global.config;
+
+import com.feelmycode.parabole.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 쿠폰 카운터 컬럼이 추가되기 전의 데이터를 맞추기 위한 1회성 보정.
+ * 다른 인스턴스가 쿠폰 상태를 바꾸는 중에는 켜지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.counter.recount-on-startup", havingValue = "true")
+public class CouponCounterInitializer implements ApplicationRunner {
+
+    private final CouponRepository couponRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int updated = couponRepository.recountMaterializedCounters();
+        log.info("쿠폰 카운터 재계산 완료 : {} 건", updated);
+    }
+}
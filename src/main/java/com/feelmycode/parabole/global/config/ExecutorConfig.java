@@ -0,0 +1,60 @@
+package com.feelmycode.parabole.global.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /** 대량 쿠폰 발행 작업용 스레드 풀 */
+    @Bean(name = "couponIssueExecutor")
+    public Executor couponIssueExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("coupon-issue-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 이미지 업로드용 스레드 풀.
+     * 큐가 차면 요청 스레드가 직접 업로드해서, 업로드가 몰려도 대기 작업과 메모리가 한없이 늘지 않는다.
+     */
+    @Bean(name = "imageUploadExecutor")
+    public Executor imageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 축소본 생성용 스레드 풀. 요청 처리와 상관없는 작업이라 큐가 차면 버리고,
+     * 결과가 기록되지 않은 이미지는 ImageDerivativeService 의 주기적인 backfill 이 다시 넣는다.
+     */
+    @Bean(name = "imageDerivativeExecutor")
+    public Executor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("image-derivative-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,52 @@
+package com.feelmycode.parabole.global.event;
+
+import com.feelmycode.parabole.domain.Product;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * 상품이 등록되거나 수정되었을 때 발행한다. 트랜잭션이 커밋된 뒤에 리스너가 처리한다.
+ * categories 에는 변경 전후 카테고리가 모두 들어있어 두 카테고리의 목록 캐시를 함께 비울 수 있다.
+ */
+@Getter
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final Long sellerId;
+    private final Set<String> categories;
+    private final boolean reindex;      // 상품명이나 카테고리가 바뀌었을 수 있어 검색 색인도 갱신해야 하는지
+
+    private ProductChangedEvent(Long productId, Long sellerId, String category, String previousCategory,
+        boolean reindex) {
+        this.productId = productId;
+        this.sellerId = sellerId;
+        this.categories = new HashSet<>();
+        if (category != null) {
+            this.categories.add(category);
+        }
+        if (previousCategory != null) {
+            this.categories.add(previousCategory);
+        }
+        this.reindex = reindex;
+    }
+
+    private ProductChangedEvent(Product product, String previousCategory, boolean reindex) {
+        this(product.getId(), product.getSeller() == null ? null : product.getSeller().getId(),
+            product.getCategory(), previousCategory, reindex);
+    }
+
+    /** 등록 또는 상품 정보 수정 */
+    public static ProductChangedEvent updated(Product product, String previousCategory) {
+        return new ProductChangedEvent(product, previousCategory, true);
+    }
+
+    /** 재고나 썸네일처럼 검색 색인과 무관한 값만 바뀐 경우 */
+    public static ProductChangedEvent refreshed(Product product) {
+        return new ProductChangedEvent(product, null, false);
+    }
+
+    public static ProductChangedEvent refreshed(Long productId, Long sellerId, String category) {
+        return new ProductChangedEvent(productId, sellerId, category, null, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.feelmycode.parabole.global.event;
+
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** 주문 상품의 재고 차감이 끝났을 때 발행한다. 트랜잭션이 커밋된 뒤에 판매 순위에 반영된다. */
+@Getter
+@RequiredArgsConstructor
+public class ProductSoldEvent {
+
+    private final Map<Long, Long> quantities;   // 상품 id -> 판매 수량
+}
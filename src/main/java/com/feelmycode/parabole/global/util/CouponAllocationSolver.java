@@ -0,0 +1,34 @@
+package com.feelmycode.parabole.global.util;
+
+import java.util.Arrays;
+
+/**
+ * 주문 그룹과 쿠폰 사이의 최대 할인 배정.
+ * 한 그룹에는 쿠폰을 최대 한 장 적용한다. 쿠폰은 판매자 전용이고 장바구니는 판매자별로 묶으므로
+ * 한 쿠폰을 두 그룹에 적용할 수 있는 경우가 없고, 그룹마다 할인 금액이 가장 큰 쿠폰을 고르면
+ * 그대로 할인 합계가 가장 큰 배정이 된다.
+ */
+public class CouponAllocationSolver {
+
+    public static final int NONE = -1;
+
+    /**
+     * @param weights weights[g][c] 는 그룹 g 에 쿠폰 c 를 적용했을 때의 할인 금액. 0 이하이면 적용할 수 없다.
+     *                한 쿠폰(열)은 최대 한 그룹에서만 0 보다 커야 한다.
+     * @return 그룹별로 배정된 쿠폰의 index. 배정된 쿠폰이 없으면 {@link #NONE}
+     */
+    public static int[] solve(long[][] weights) {
+        int[] result = new int[weights.length];
+        Arrays.fill(result, NONE);
+        for (int g = 0; g < weights.length; g++) {
+            long[] row = weights[g];
+            // 같은 금액이면 index 가 작은 쿠폰
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] > 0 && (result[g] == NONE || row[c] > row[result[g]])) {
+                    result[g] = c;
+                }
+            }
+        }
+        return result;
+    }
+}
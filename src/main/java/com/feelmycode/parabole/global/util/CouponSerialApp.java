@@ -0,0 +1,124 @@
+package com.feelmycode.parabole.global.util;
+
+import java.security.SecureRandom;
+import java.util.regex.Pattern;
+
+/**
+ * 쿠폰 일련번호 생성기.
+ * 64bit 값(시각 42bit | 노드 10bit | 순번 12bit)을 Crockford Base32 13자리로 적고
+ * 검증 문자 1자리를 덧붙인 14자리 문자열을 만든다.
+ * 시각이 앞자리에 오므로 생성 순서대로 정렬되어 인덱스에 순차적으로 쌓인다.
+ */
+public class CouponSerialApp {
+
+    public static final int LENGTH = 14;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] DECODE = new int[128];
+    private static final Pattern LEGACY_UUID = Pattern.compile(
+        "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+
+    private static final long EPOCH = 1640995200000L;   // 2022-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    // 애플리케이션에서는 CouponSerialService 가 설정값으로 덮어쓴다. 스프링 없이 쓸 때만 임의 값이 남는다.
+    private static long nodeId = new SecureRandom().nextInt((int) MAX_NODE + 1);
+    private static long lastMillis = -1L;
+    private static long sequence = 0L;
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Crockford Base32 의 혼동 문자
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    /** 인스턴스마다 다른 노드 번호를 주면 인스턴스 간 일련번호가 겹치지 않는다. */
+    public static synchronized void setNodeId(long id) {
+        if (id < 0 || id > MAX_NODE) {
+            throw new IllegalArgumentException("node id 는 0 ~ " + MAX_NODE + " 사이여야 합니다.");
+        }
+        nodeId = id;
+    }
+
+    public static String generator() {
+        char[] chars = new char[LENGTH];
+        long value = nextValue();
+        for (int i = LENGTH - 2; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        chars[LENGTH - 1] = checkChar(chars, LENGTH - 1);
+        return new String(chars);
+    }
+
+    /**
+     * 입력받은 일련번호를 저장된 형태로 바꾼다. 형식이나 검증 문자가 맞지 않으면 null.
+     * 이전에 발급된 UUID 일련번호는 그대로 돌려준다.
+     */
+    public static String normalize(String serialNo) {
+        if (serialNo == null) {
+            return null;
+        }
+        String trimmed = serialNo.trim();
+        if (LEGACY_UUID.matcher(trimmed).matches()) {
+            return trimmed;
+        }
+
+        char[] chars = new char[LENGTH];
+        int len = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            if (len == LENGTH || c >= 128 || DECODE[c] < 0) {
+                return null;
+            }
+            chars[len++] = ALPHABET[DECODE[c]];
+        }
+        if (len != LENGTH || checkChar(chars, LENGTH - 1) != chars[LENGTH - 1]) {
+            return null;
+        }
+        return new String(chars);
+    }
+
+    private static synchronized long nextValue() {
+        long now = System.currentTimeMillis();
+        if (now < lastMillis) {
+            // 시계가 뒤로 간 경우 마지막 시각을 계속 사용
+            now = lastMillis;
+        }
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                while (now <= lastMillis) {
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            sequence = 0L;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /** Luhn mod 32. 한 글자 오타와 인접한 두 글자의 자리바꿈을 잡아낸다. */
+    private static char checkChar(char[] chars, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = factor * DECODE[chars[i]];
+            factor = (factor == 2) ? 1 : 2;
+            sum += (addend / 32) + (addend % 32);
+        }
+        return ALPHABET[(32 - (sum % 32)) % 32];
+    }
+}
@@ -0,0 +1,39 @@
+package com.feelmycode.parabole.global.util;
+
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 커서 기반 페이지 조회에서 주고받는 커서.
+ * 마지막으로 내려준 id 를 감싼 값이며 클라이언트는 내용을 해석하지 않고 그대로 돌려보낸다.
+ */
+public class CursorUtil {
+
+    private static final String PREFIX = "id:";
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 빈 커서는 첫 페이지를 뜻하며 Long.MAX_VALUE 를 반환한다. */
+    public static Long decode(String cursor) {
+        if (StringUtil.controllerParamIsBlank(cursor)) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.");
+        }
+    }
+}
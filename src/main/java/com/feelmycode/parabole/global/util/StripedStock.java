@@ -0,0 +1,83 @@
+package com.feelmycode.parabole.global.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 여러 칸으로 나눈 메모리 재고 카운터.
+ * 스레드마다 다른 칸에서 먼저 차감해 하나의 카운터에 CAS 경합이 몰리지 않게 한다.
+ * 한 칸의 수량이 모자라면 다른 칸을 차례로 시도하고, 칸마다 조금씩 남아 요청 수량을 채우지 못하면
+ * 전체를 다시 나눈 뒤 한 번 더 시도한다. 어느 순간에도 차감된 수량의 합은 처음 수량을 넘지 않는다.
+ */
+public class StripedStock {
+
+    // 칸 사이의 false sharing 을 피하려고 칸마다 8 개(64 byte) 간격을 둔다.
+    private static final int PAD = 8;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedStock(long stock, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PAD);
+        release(stock);
+    }
+
+    public boolean tryAcquire(long cnt) {
+        if (tryAcquireFromCells(cnt)) {
+            return true;
+        }
+        synchronized (this) {
+            rebalance();
+            return tryAcquireFromCells(cnt);
+        }
+    }
+
+    /** 차감했던 수량을 돌려놓거나 재고를 추가한다. 칸마다 고르게 나눈다. */
+    public void release(long cnt) {
+        long share = cnt / stripes;
+        long rest = cnt % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long add = share + (i < rest ? 1 : 0);
+            if (add > 0) {
+                cells.addAndGet(i * PAD, add);
+            }
+        }
+    }
+
+    /** 남은 수량을 모두 차감하고 차감한 수량을 반환 */
+    public long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PAD, 0);
+        }
+        return total;
+    }
+
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    private boolean tryAcquireFromCells(long cnt) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int n = 0; n < stripes; n++) {
+            int index = ((start + n) % stripes) * PAD;
+            long current;
+            while ((current = cells.get(index)) >= cnt) {
+                if (cells.compareAndSet(index, current, current - cnt)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** 모든 칸을 비워 합친 뒤 다시 고르게 나눈다. */
+    private void rebalance() {
+        release(drain());
+    }
+}
@@ -0,0 +1,382 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Cart;
+import com.feelmycode.parabole.dto.CartItemRowDto;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.repository.CartItemBulkRepository;
+import com.feelmycode.parabole.repository.CartRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 사용자별 장바구니를 메모리에 두고 조회와 수량 변경, 삭제를 DB 없이 처리한다.
+ * 상품 추가는 cart_item_id 가 필요하므로 바로 저장하고, 수량 변경과 삭제는 모아 두었다가
+ * 주기적으로(cart.store.flush-delay) 한 번에 반영한다. 같은 상품을 여러 번 바꾸면 마지막 값만 저장한다.
+ * 여러 변경을 한 번에 요청하면({@link #applyBatch}) 모아 둔 변경과 함께 바로 저장한다.
+ *
+ * 메모리에 두는 장바구니 수는 cart.store.maximum-size 로 제한하며 오래 쓰지 않은 것부터 내보낸다.
+ * 반영하지 않은 변경이 있는 장바구니는 내보내져도 pending 에 남아 있다가 반영된 뒤에 사라진다.
+ * 주문처럼 DB 의 장바구니를 읽는 쪽은 먼저 {@link #flush(Long)} 를 호출해야 한다.
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemBulkRepository cartItemBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Long, CartState> carts;
+    private final Map<Long, CartState> pending = new ConcurrentHashMap<>();
+
+    public CartStore(CartRepository cartRepository,
+        CartItemBulkRepository cartItemBulkRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${cart.store.maximum-size:10000}") long maximumSize,
+        @Value("${cart.store.expire-minutes:30}") long expireMinutes) {
+        this.cartRepository = cartRepository;
+        this.cartItemBulkRepository = cartItemBulkRepository;
+        // 호출한 쪽 트랜잭션이 롤백되어도 이미 반영했다고 기록한 변경은 남아야 한다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.carts = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+            .build();
+    }
+
+    public Long getCartId(Long userId) {
+        return get(userId).cartId;
+    }
+
+    /** 장바구니 상품 목록 (담은 순서) */
+    public List<CartItemRowDto> getItems(Long userId) {
+        CartState state = get(userId);
+        synchronized (state) {
+            return new ArrayList<>(state.items.values());
+        }
+    }
+
+    public CartItemRowDto getItem(Long userId, Long cartItemId) {
+        CartState state = get(userId);
+        synchronized (state) {
+            CartItemRowDto item = state.items.get(cartItemId);
+            if (item == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다.");
+            }
+            return item;
+        }
+    }
+
+    /** 바로 저장한다. 이미 담긴 상품이거나 maxItems 개를 넘으면 예외 */
+    public CartItemRowDto add(Long userId, Long productId, Integer cnt, int maxItems) {
+        CartState state = get(userId);
+        synchronized (state) {
+            for (CartItemRowDto item : state.items.values()) {
+                if (item.getProductId().equals(productId)) {
+                    throw new ParaboleException(HttpStatus.BAD_REQUEST, "이미 등록된 상품입니다.");
+                }
+            }
+            if (state.items.size() >= maxItems) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 넣을 수 있는 물품이 최대 입니다.");
+            }
+            Long cartItemId = transactionTemplate.execute(
+                status -> cartItemBulkRepository.insert(state.cartId, productId, cnt));
+            CartItemRowDto item = new CartItemRowDto(cartItemId, productId, cnt);
+            state.items.put(cartItemId, item);
+            return item;
+        }
+    }
+
+    public void update(Long userId, Long cartItemId, Integer cnt) {
+        CartState state = get(userId);
+        synchronized (state) {
+            CartItemRowDto item = state.items.get(cartItemId);
+            if (item == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다.");
+            }
+            state.items.put(cartItemId, new CartItemRowDto(cartItemId, item.getProductId(), cnt));
+            state.updates.put(cartItemId, cnt);
+            pending.put(userId, state);
+        }
+    }
+
+    public void remove(Long userId, Long cartItemId) {
+        CartState state = get(userId);
+        synchronized (state) {
+            if (state.items.remove(cartItemId) == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다.");
+            }
+            state.updates.remove(cartItemId);
+            state.deletes.add(cartItemId);
+            pending.put(userId, state);
+        }
+    }
+
+    /**
+     * 추가(상품 id -> 수량), 수량 변경(cart_item_id -> 수량), 삭제를 모두 검사한 뒤 아직 반영하지 않은 변경과 함께
+     * 트랜잭션 하나로 저장한다. 하나라도 잘못되었으면 아무것도 바꾸지 않고 예외
+     */
+    public void applyBatch(Long userId, Map<Long, Integer> adds, Map<Long, Integer> updates, Set<Long> deletes,
+        int maxItems) {
+        CartState state = get(userId);
+        state.flushLock.lock();
+        try {
+            synchronized (state) {
+                for (Long cartItemId : deletes) {
+                    if (!state.items.containsKey(cartItemId)) {
+                        throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다.");
+                    }
+                }
+                for (Long cartItemId : updates.keySet()) {
+                    if (!state.items.containsKey(cartItemId) || deletes.contains(cartItemId)) {
+                        throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다.");
+                    }
+                }
+                // 같은 요청에서 지우는 상품은 다시 담을 수 있다.
+                for (CartItemRowDto item : state.items.values()) {
+                    if (adds.containsKey(item.getProductId()) && !deletes.contains(item.getCartItemId())) {
+                        throw new ParaboleException(HttpStatus.BAD_REQUEST, "이미 등록된 상품입니다.");
+                    }
+                }
+                if (state.items.size() - deletes.size() + adds.size() > maxItems) {
+                    throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 넣을 수 있는 물품이 최대 입니다.");
+                }
+
+                Map<Long, Integer> allUpdates = new HashMap<>(state.updates);
+                allUpdates.putAll(updates);
+                Set<Long> allDeletes = new HashSet<>(state.deletes);
+                allDeletes.addAll(deletes);
+                allUpdates.keySet().removeAll(allDeletes);
+                List<Long> cartItemIds = transactionTemplate.execute(status -> {
+                    cartItemBulkRepository.updateCounts(allUpdates);
+                    cartItemBulkRepository.deleteByIds(allDeletes);
+                    return cartItemBulkRepository.insertAll(state.cartId, adds);
+                });
+
+                deletes.forEach(state.items::remove);
+                updates.forEach((cartItemId, cnt) -> state.items.put(cartItemId,
+                    new CartItemRowDto(cartItemId, state.items.get(cartItemId).getProductId(), cnt)));
+                int i = 0;
+                for (Map.Entry<Long, Integer> add : adds.entrySet()) {
+                    Long cartItemId = cartItemIds.get(i++);
+                    state.items.put(cartItemId, new CartItemRowDto(cartItemId, add.getKey(), add.getValue()));
+                }
+                state.updates = new HashMap<>();
+                state.deletes = new HashSet<>();
+                markClean(state);
+            }
+        } finally {
+            state.flushLock.unlock();
+        }
+    }
+
+    /** 사용자의 반영하지 않은 변경을 지금 저장한다. 실패하면 예외 */
+    public void flush(Long userId) {
+        CartState state = pending.get(userId);
+        if (state != null) {
+            flush(state);
+        }
+    }
+
+    /**
+     * DB 에서 장바구니 상품을 직접 바꾼 뒤 호출한다. 트랜잭션 안이면 커밋된 뒤에 메모리 장바구니를 버리고
+     * 다음 조회 때 다시 읽는다.
+     */
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${cart.store.flush-delay:1000}")
+    public void flushAll() {
+        for (CartState state : pending.values()) {
+            try {
+                flush(state);
+            } catch (RuntimeException e) {
+                log.error("장바구니 변경 반영 실패 cartId : {} / {}", state.cartId, e.getMessage());
+            }
+        }
+    }
+
+    private CartState get(Long userId) {
+        CartState state = pending.get(userId);
+        if (state != null) {
+            return state;
+        }
+        return carts.get(userId, this::load);
+    }
+
+    private CartState load(Long userId) {
+        Cart cart = cartRepository.findByUserId(userId).orElseThrow(() ->
+            new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니가 없습니다."));
+        CartState state = new CartState(userId, cart.getId());
+        for (CartItemRowDto row : cartItemBulkRepository.findRows(cart.getId())) {
+            state.items.put(row.getCartItemId(), row);
+        }
+        return state;
+    }
+
+    private void evict(Long userId) {
+        CartState state = pending.get(userId);
+        if (state == null) {
+            carts.invalidate(userId);
+            return;
+        }
+        // 반영하지 않은 변경이 남아 있으면 버릴 수 없으므로 목록만 DB 기준으로 다시 맞춘다.
+        synchronized (state) {
+            state.stale = true;
+        }
+        try {
+            flush(state);
+        } catch (RuntimeException e) {
+            log.error("장바구니 변경 반영 실패 cartId : {} / {}", state.cartId, e.getMessage());
+            reload(state);
+        }
+    }
+
+    /**
+     * DB 의 장바구니 상품 위에 반영하지 않은 변경을 다시 적용한다. 그 사이 DB 에서 지워진 상품의 변경은 버린다.
+     * 읽기에 실패하면 stale 로 남겨 두고 다음 반영 때 다시 시도한다.
+     */
+    private void reload(CartState state) {
+        state.flushLock.lock();
+        try {
+            List<CartItemRowDto> rows;
+            try {
+                rows = cartItemBulkRepository.findRows(state.cartId);
+            } catch (RuntimeException e) {
+                log.error("장바구니 다시 읽기 실패 cartId : {} / {}", state.cartId, e.getMessage());
+                return;
+            }
+            synchronized (state) {
+                Set<Long> cartItemIds = new HashSet<>();
+                state.items.clear();
+                for (CartItemRowDto row : rows) {
+                    Long cartItemId = row.getCartItemId();
+                    cartItemIds.add(cartItemId);
+                    if (state.deletes.contains(cartItemId)) {
+                        continue;
+                    }
+                    Integer cnt = state.updates.get(cartItemId);
+                    state.items.put(cartItemId,
+                        cnt == null ? row : new CartItemRowDto(cartItemId, row.getProductId(), cnt));
+                }
+                state.updates.keySet().retainAll(cartItemIds);
+                state.deletes.retainAll(cartItemIds);
+                state.stale = false;
+                if (state.isClean()) {
+                    markClean(state);
+                }
+            }
+        } finally {
+            state.flushLock.unlock();
+        }
+    }
+
+    private void flush(CartState state) {
+        // 같은 장바구니의 반영은 한 번에 하나씩 해야 이전 변경이 나중 변경을 덮어쓰지 않는다.
+        state.flushLock.lock();
+        try {
+            Map<Long, Integer> updates;
+            Set<Long> deletes;
+            synchronized (state) {
+                updates = state.updates;
+                deletes = state.deletes;
+                state.updates = new HashMap<>();
+                state.deletes = new HashSet<>();
+            }
+            if (!updates.isEmpty() || !deletes.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        cartItemBulkRepository.updateCounts(updates);
+                        cartItemBulkRepository.deleteByIds(deletes);
+                    });
+                } catch (RuntimeException e) {
+                    synchronized (state) {
+                        updates.forEach((cartItemId, cnt) -> {
+                            if (!state.deletes.contains(cartItemId)) {
+                                state.updates.putIfAbsent(cartItemId, cnt);
+                            }
+                        });
+                        deletes.forEach(cartItemId -> {
+                            state.updates.remove(cartItemId);
+                            state.deletes.add(cartItemId);
+                        });
+                    }
+                    throw e;
+                }
+            }
+            boolean stale;
+            synchronized (state) {
+                stale = state.stale;
+                if (state.isClean()) {
+                    markClean(state);
+                    return;
+                }
+            }
+            if (stale) {
+                reload(state);
+            }
+        } finally {
+            state.flushLock.unlock();
+        }
+    }
+
+    private void markClean(CartState state) {
+        pending.remove(state.userId, state);
+        // 내보내진 뒤 다른 요청이 DB 에서 다시 읽은 장바구니가 있으면 반영 전 값이므로 버린다.
+        // DB 가 바뀐 장바구니(stale)도 다음 조회 때 다시 읽는다.
+        carts.asMap().computeIfPresent(state.userId,
+            (userId, cached) -> cached == state && !state.stale ? cached : null);
+    }
+
+    private static class CartState {
+
+        private final Long userId;
+        private final Long cartId;
+        private final Map<Long, CartItemRowDto> items = new LinkedHashMap<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private Map<Long, Integer> updates = new HashMap<>();    // 반영할 수량 변경 (cart_item_id -> 수량)
+        private Set<Long> deletes = new HashSet<>();             // 반영할 삭제
+        private boolean stale;                                   // DB 에서 직접 바뀌어 다시 읽어야 함
+
+        private CartState(Long userId, Long cartId) {
+            this.userId = userId;
+            this.cartId = cartId;
+        }
+
+        private boolean isClean() {
+            return updates.isEmpty() && deletes.isEmpty();
+        }
+    }
+}
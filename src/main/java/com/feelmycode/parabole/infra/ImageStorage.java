@@ -0,0 +1,33 @@
+package com.feelmycode.parabole.infra;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 이미지 저장소. storage.type 으로 구현을 고른다. (s3 : AwsS3Service, local : LocalImageStorage)
+ */
+public interface ImageStorage {
+
+    /**
+     * 스트림을 key 로 저장하고 접근 가능한 URL 을 반환한다.
+     * contentLength 를 알려주므로 구현은 내용을 메모리에 모으지 않고 그대로 흘려보낼 수 있다.
+     */
+    String store(String key, InputStream inputStream, long contentLength, String contentType) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key);
+
+    String getUrl(String key);
+
+    /** 이 저장소가 만든 URL 이면 key 를, 아니면 null 을 반환 */
+    default String keyOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        String key = url.substring(url.lastIndexOf('/') + 1);
+        return !key.isEmpty() && url.equals(getUrl(key)) ? key : null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.feelmycode.parabole.infra;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** 로컬 디스크 이미지 저장소. AWS 없이 업로드 과정을 부하 테스트하거나 개발할 때 사용한다. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path rootDir;
+    private final String baseUrl;
+
+    public LocalImageStorage(@Value("${storage.local.root-dir:${java.io.tmpdir}/parabole-images}") String rootDir,
+        @Value("${storage.local.base-url:}") String baseUrl) {
+        this.rootDir = Paths.get(rootDir).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl;
+        try {
+            Files.createDirectories(this.rootDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String store(String key, InputStream inputStream, long contentLength, String contentType)
+        throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // 같은 디렉터리의 임시 파일에 쓴 뒤 옮겨서, 읽는 쪽이 반쯤 쓰인 파일을 보지 않게 한다.
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try (InputStream in = inputStream) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return getUrl(key);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            log.warn("이미지 삭제 실패 key : {} / {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public String getUrl(String key) {
+        if (baseUrl.isEmpty()) {
+            return resolve(key).toUri().toString();
+        }
+        return baseUrl.endsWith("/") ? baseUrl + key : baseUrl + "/" + key;
+    }
+
+    private Path resolve(String key) {
+        Path path = rootDir.resolve(key).normalize();
+        if (!path.startsWith(rootDir)) {
+            throw new IllegalArgumentException("잘못된 이미지 경로입니다 : " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,178 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.dto.ProductDetailListResponseDto;
+import com.feelmycode.parabole.dto.ProductDto;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 상품 목록(판매자, 카테고리, 전체) 페이지와 상품 상세 응답 캐시.
+ * 크기와 시간으로 제한하고, 상품이 바뀌면 커밋 뒤에 그 상품이 들어있을 수 있는 목록과 상세만 지운다.
+ *
+ * 무효화와 동시에 진행 중이던 조회가 이전 값을 다시 넣지 않도록, 조회 시작 시점의 버전이
+ * 조회가 끝났을 때와 다르면 결과를 캐시에 넣지 않는다.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<ListKey, Page<ProductDto>> listCache;
+    private final Cache<Long, ProductDetailListResponseDto> detailCache;
+    private final AtomicLong version = new AtomicLong();
+    private final boolean enabled;
+    private final int maxCachedPage;
+
+    public ProductCatalogCache(@Value("${product.cache.enabled:true}") boolean enabled,
+        @Value("${product.cache.list.maximum-size:5000}") long listMaximumSize,
+        @Value("${product.cache.detail.maximum-size:10000}") long detailMaximumSize,
+        @Value("${product.cache.expire-seconds:300}") long expireSeconds,
+        @Value("${product.cache.list.max-page:10}") int maxCachedPage) {
+        this.enabled = enabled;
+        this.maxCachedPage = maxCachedPage;
+        this.listCache = Caffeine.newBuilder()
+            .maximumSize(listMaximumSize)
+            .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+            .recordStats()
+            .build();
+        this.detailCache = Caffeine.newBuilder()
+            .maximumSize(detailMaximumSize)
+            .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+            .recordStats()
+            .build();
+    }
+
+    /** sellerId 가 0 이면 판매자 조건 없음, category 가 "" 이면 카테고리 조건 없음 */
+    public Page<ProductDto> getList(Long sellerId, String category, Pageable pageable, Supplier<Page<ProductDto>> loader) {
+        // 깊은 페이지는 거의 다시 조회되지 않으므로 캐시를 채우지 않는다.
+        if (!enabled || pageable.getPageNumber() >= maxCachedPage) {
+            return loader.get();
+        }
+        return get(listCache, new ListKey(sellerId, category, pageable), loader);
+    }
+
+    public ProductDetailListResponseDto getDetail(Long productId, Supplier<ProductDetailListResponseDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return get(detailCache, productId, loader);
+    }
+
+    /** 캐시에 없는 상품만 loader 로 한 번에 읽는다. 존재하지 않는 상품은 결과에 없다. */
+    public Map<Long, ProductDetailListResponseDto> getDetails(Collection<Long> productIds,
+        Function<Collection<Long>, Map<Long, ProductDetailListResponseDto>> loader) {
+        if (!enabled) {
+            return loader.apply(productIds);
+        }
+        Map<Long, ProductDetailListResponseDto> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            ProductDetailListResponseDto cached = detailCache.getIfPresent(productId);
+            if (cached != null) {
+                result.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long before = version.get();
+            Map<Long, ProductDetailListResponseDto> loaded = loader.apply(missing);
+            result.putAll(loaded);
+            if (version.get() == before) {
+                detailCache.putAll(loaded);
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+        detailCache.invalidate(event.getProductId());
+        listCache.asMap().keySet().removeIf(key -> key.contains(event));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("list", toMap(listCache.stats(), listCache.estimatedSize()));
+        stats.put("detail", toMap(detailCache.stats(), detailCache.estimatedSize()));
+        return stats;
+    }
+
+    private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = version.get();
+        V loaded = loader.get();
+        if (loaded != null && version.get() == before) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictionCount", stats.evictionCount());
+        return map;
+    }
+
+    private static class ListKey {
+
+        private final Long sellerId;
+        private final String category;
+        private final Pageable pageable;
+
+        private ListKey(Long sellerId, String category, Pageable pageable) {
+            this.sellerId = sellerId;
+            this.category = category;
+            this.pageable = pageable;
+        }
+
+        /** 바뀐 상품이 이 목록에 들어있을 수 있는지 */
+        private boolean contains(ProductChangedEvent event) {
+            boolean sellerMatches = sellerId.equals(0L) || sellerId.equals(event.getSellerId());
+            boolean categoryMatches = category.equals("") || event.getCategories().contains(category);
+            return sellerMatches && categoryMatches;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ListKey)) {
+                return false;
+            }
+            ListKey other = (ListKey) o;
+            return sellerId.equals(other.sellerId) && category.equals(other.category)
+                && pageable.equals(other.pageable);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sellerId, category, pageable);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.dto.ProductFacetDto;
+import com.feelmycode.parabole.dto.ProductFacetRowDto;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 삭제되지 않은 상품의 카테고리별, 판매자별 상품 수.
+ * 시작할 때 한 번 읽고, 상품이 등록, 수정, 삭제되면 커밋 뒤에 그 상품만 이전 값에서 빼고 새 값에 더한다.
+ * 이벤트 없이 DB 가 바뀐 경우를 위해 주기적으로 다시 읽어 메모리 값과 다르면 바꿔 넣는다.
+ */
+@Slf4j
+@Component
+public class ProductFacetCounter {
+
+    private final ProductRepository productRepository;
+    private final ProductBulkRepository productBulkRepository;
+
+    private final Object rebuildLock = new Object();
+    private Facets facets = new Facets();
+    private Set<Long> touched;                  // 다시 읽는 동안 바뀐 상품. 다시 읽는 중이 아니면 null
+    private volatile ProductFacetDto all;       // 전체 상품 수 응답. 바뀌면 비운다.
+
+    public ProductFacetCounter(ProductRepository productRepository, ProductBulkRepository productBulkRepository) {
+        this.productRepository = productRepository;
+        this.productBulkRepository = productBulkRepository;
+    }
+
+    /** sellerId 가 0 이면 전체 상품 수, 아니면 그 판매자의 카테고리별 상품 수 */
+    public ProductFacetDto getFacets(Long sellerId) {
+        if (sellerId.equals(0L)) {
+            ProductFacetDto cached = all;
+            if (cached != null) {
+                return cached;
+            }
+            synchronized (this) {
+                if (all == null) {
+                    all = new ProductFacetDto(Map.copyOf(facets.categoryCounts), Map.copyOf(facets.sellerCounts));
+                }
+                return all;
+            }
+        }
+        synchronized (this) {
+            return new ProductFacetDto(Map.copyOf(facets.sellerCategoryCounts.getOrDefault(sellerId, Map.of())),
+                Map.of(sellerId, facets.sellerCounts.getOrDefault(sellerId, 0L)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        log.info("상품 수 집계 완료");
+    }
+
+    @Scheduled(fixedDelayString = "${product.facet.reconcile-delay:600000}",
+        initialDelayString = "${product.facet.reconcile-delay:600000}")
+    public void reconcile() {
+        int drift = rebuild();
+        if (drift > 0) {
+            log.warn("상품 수 집계가 DB 와 달라 다시 맞춤 차이 : {}", drift);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // 재고, 썸네일 변경은 판매자, 카테고리, 삭제 여부와 무관하다.
+        if (!event.isReindex()) {
+            return;
+        }
+        apply(event.getProductId(), productRepository.findById(event.getProductId()).orElse(null));
+    }
+
+    /** DB 에서 다시 읽어 바꿔 넣고, 메모리 값과 달랐던 (판매자, 카테고리) 수를 반환한다. */
+    private int rebuild() {
+        synchronized (rebuildLock) {
+            return rebuildFromDb();
+        }
+    }
+
+    private int rebuildFromDb() {
+        synchronized (this) {
+            touched = new HashSet<>();
+        }
+        Facets fresh = new Facets();
+        for (ProductFacetRowDto row : productBulkRepository.findLiveFacetRows()) {
+            fresh.add(row.getProductId(), row.getSellerId(), row.getCategory());
+        }
+
+        Set<Long> replay;
+        int drift;
+        synchronized (this) {
+            drift = facets.diff(fresh);
+            facets = fresh;
+            replay = touched;
+            touched = null;
+            all = null;
+        }
+        // 읽는 도중 커밋된 변경은 결과에 빠졌을 수 있으므로 해당 상품만 다시 반영한다.
+        if (!replay.isEmpty()) {
+            Map<Long, Product> products = new HashMap<>();
+            productRepository.findAllById(replay).forEach(product -> products.put(product.getId(), product));
+            replay.forEach(productId -> apply(productId, products.get(productId)));
+        }
+        return drift;
+    }
+
+    private synchronized void apply(Long productId, Product product) {
+        facets.remove(productId);
+        if (product != null && !product.isDeleted() && product.getSeller() != null) {
+            facets.add(productId, product.getSeller().getId(), product.getCategory());
+        }
+        if (touched != null) {
+            touched.add(productId);
+        }
+        all = null;
+    }
+
+    private static class Facets {
+
+        private final Map<Long, ProductFacetRowDto> products = new HashMap<>();
+        private final Map<String, Long> categoryCounts = new HashMap<>();
+        private final Map<Long, Long> sellerCounts = new HashMap<>();
+        private final Map<Long, Map<String, Long>> sellerCategoryCounts = new HashMap<>();
+
+        private void add(Long productId, Long sellerId, String category) {
+            String key = category == null ? "" : category;
+            products.put(productId, new ProductFacetRowDto(productId, sellerId, key));
+            categoryCounts.merge(key, 1L, Long::sum);
+            sellerCounts.merge(sellerId, 1L, Long::sum);
+            sellerCategoryCounts.computeIfAbsent(sellerId, id -> new HashMap<>()).merge(key, 1L, Long::sum);
+        }
+
+        private void remove(Long productId) {
+            ProductFacetRowDto row = products.remove(productId);
+            if (row == null) {
+                return;
+            }
+            decrease(categoryCounts, row.getCategory());
+            decrease(sellerCounts, row.getSellerId());
+            Map<String, Long> counts = sellerCategoryCounts.get(row.getSellerId());
+            decrease(counts, row.getCategory());
+            if (counts.isEmpty()) {
+                sellerCategoryCounts.remove(row.getSellerId());
+            }
+        }
+
+        /** 판매자별 카테고리 상품 수가 다른 항목 수 */
+        private int diff(Facets other) {
+            Set<Long> sellers = new HashSet<>(sellerCategoryCounts.keySet());
+            sellers.addAll(other.sellerCategoryCounts.keySet());
+            int drift = 0;
+            for (Long sellerId : sellers) {
+                Map<String, Long> mine = sellerCategoryCounts.getOrDefault(sellerId, Map.of());
+                Map<String, Long> theirs = other.sellerCategoryCounts.getOrDefault(sellerId, Map.of());
+                Set<String> categories = new HashSet<>(mine.keySet());
+                categories.addAll(theirs.keySet());
+                for (String category : categories) {
+                    if (!Objects.equals(mine.get(category), theirs.get(category))) {
+                        drift++;
+                    }
+                }
+            }
+            return drift;
+        }
+
+        private static <K> void decrease(Map<K, Long> counts, K key) {
+            counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+}
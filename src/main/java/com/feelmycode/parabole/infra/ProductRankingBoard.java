@@ -0,0 +1,415 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.domain.ProductRanking;
+import com.feelmycode.parabole.enumtype.OrderInfoState;
+import com.feelmycode.parabole.enumtype.RankingType;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.global.event.ProductSoldEvent;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import com.feelmycode.parabole.repository.ProductRankingRepository;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 상품 판매 순위(누적 판매량, 최근 판매 점수)를 메모리에서 갱신한다.
+ * 판매가 커밋될 때마다 해당 상품의 점수만 올리고, 전체와 카테고리별로 상위 top-size 개의 순서를 유지한다.
+ * 조회는 미리 만들어 둔 순위 목록에서 페이지만큼 잘라 주므로 상품 수와 상관없이 일정한 시간이 걸린다.
+ * 조회용 목록은 판매마다 만들지 않고 publish-delay 마다 순서가 바뀐 순위만 새로 만든다.
+ *
+ * 최근 판매 점수는 forward decay 로 계산한다. 판매 시각이 기준 시각(landmark)보다 늦을수록 큰 가중치를 주므로
+ * 시간이 지나도 기존 점수를 고칠 필요가 없고 순서도 바뀌지 않는다. 가중치가 너무 커지기 전에 기준 시각을 옮긴다.
+ * 점수는 주기적으로 지난 저장 이후 늘어난 만큼만 product_rankings 에 더하고 시작할 때 읽어 복원한다.
+ * 여러 서버가 각자 저장해도 서로의 판매량을 덮어쓰지 않는다.
+ * 삭제된 상품은 점수만 남기고 순위에서는 뺀다.
+ */
+@Slf4j
+@Component
+public class ProductRankingBoard {
+
+    private static final String ALL = "";
+    private static final long RESCALE_SECONDS = 24 * 60 * 60;
+
+    private final ProductRankingRepository productRankingRepository;
+    private final ProductBulkRepository productBulkRepository;
+    private final ProductRepository productRepository;
+    private final int topSize;
+    private final double decayRate;     // 초당 감쇠율
+
+    private final Map<Long, Stat> stats = new ConcurrentHashMap<>();
+    private final Map<RankingType, Map<String, TopN>> boards = new EnumMap<>(RankingType.class);
+    private final Set<Long> dirty = new HashSet<>();
+    private long landmark;
+    private volatile boolean ready = false;
+
+    public ProductRankingBoard(ProductRankingRepository productRankingRepository,
+        ProductBulkRepository productBulkRepository,
+        ProductRepository productRepository,
+        @Value("${product.ranking.top-size:1000}") int topSize,
+        @Value("${product.ranking.trending.half-life-hours:24}") double halfLifeHours) {
+        this.productRankingRepository = productRankingRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.productRepository = productRepository;
+        this.topSize = topSize;
+        this.decayRate = Math.log(2) / (halfLifeHours * 60 * 60);
+        this.landmark = now();
+        for (RankingType type : RankingType.values()) {
+            boards.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** category 가 "" 이면 전체 순위. 전체 건수는 순위에 든 상품 수(top-size 이하) */
+    public Page<Long> getPage(RankingType type, String category, Pageable pageable) {
+        TopN board = boards.get(type).get(category);
+        List<Long> ranked = board == null ? List.of() : board.ranked;
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+    }
+
+    /** 스냅샷을 읽어 복원한다. 스냅샷이 없으면 배송 완료된 주문 상품으로 누적 판매량만 한 번 계산한다. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ProductRanking> rows = productRankingRepository.findAll();
+        boolean restored = !rows.isEmpty();
+        Set<Long> deleted = new HashSet<>();
+        if (restored) {
+            deleted.addAll(productBulkRepository.findDeletedRankedIds());
+        } else {
+            rows = productBulkRepository.sumSales(OrderInfoState.DELIVERY_COMPLETE.getValue());
+        }
+        synchronized (this) {
+            for (ProductRanking row : rows) {
+                // 시작하는 동안 이미 반영된 판매가 있을 수 있으므로 더한다.
+                Stat stat = stats.computeIfAbsent(row.getProductId(), id -> new Stat(row.getCategory()));
+                if (deleted.contains(row.getProductId())) {
+                    stat.deleted = true;
+                    remove(row.getProductId(), ALL, stat.category);
+                }
+                stat.sales += row.getSalesCount();
+                if (row.getUpdatedAt() != null && row.getTrendScore() != null) {
+                    stat.trend += row.getTrendScore() * Math.exp(-decayRate * (landmark - toEpochSecond(row.getUpdatedAt())));
+                }
+                offer(row.getProductId(), stat);
+            }
+            publish();
+        }
+        if (!restored) {
+            seed(rows);
+        }
+        ready = true;
+        log.info("상품 판매 순위 복원 완료 상품 수 : {} / 스냅샷 : {}", rows.size(), restored);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductSold(ProductSoldEvent event) {
+        // 처음 팔린 상품의 카테고리는 락 밖에서 한 번에 읽는다.
+        List<Long> unknown = new ArrayList<>();
+        for (Long productId : event.getQuantities().keySet()) {
+            if (!stats.containsKey(productId)) {
+                unknown.add(productId);
+            }
+        }
+        Map<Long, String> categories = new HashMap<>();
+        if (!unknown.isEmpty()) {
+            productRepository.findAllById(unknown).forEach(product -> categories.put(product.getId(), product.getCategory()));
+        }
+
+        synchronized (this) {
+            double weight = Math.exp(decayRate * (now() - landmark));
+            event.getQuantities().forEach((productId, cnt) -> {
+                Stat stat = stats.get(productId);
+                if (stat == null) {
+                    if (!categories.containsKey(productId)) {
+                        return;
+                    }
+                    stat = new Stat(categories.get(productId));
+                    stats.put(productId, stat);
+                }
+                stat.sales += cnt;
+                stat.trend += cnt * weight;
+                stat.pendingSales += cnt;
+                stat.pendingTrend += cnt * weight;
+                offer(productId, stat);
+                dirty.add(productId);
+            });
+        }
+    }
+
+    /**
+     * 삭제된 상품은 모든 순위에서 빼고 빈자리를 채운다.
+     * 카테고리가 바뀐 상품은 이전 카테고리 순위에서 빼고 새 카테고리 순위에 넣는다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Stat stat = stats.get(event.getProductId());
+        if (!event.isReindex() || stat == null || stat.deleted) {
+            return;
+        }
+        Product product = productRepository.findById(event.getProductId()).orElse(null);
+        synchronized (this) {
+            if (product == null || product.isDeleted()) {
+                stat.deleted = true;
+                remove(event.getProductId(), ALL, stat.category);
+                return;
+            }
+            String category = product.getCategory();
+            if (category == null || category.equals(stat.category)) {
+                return;
+            }
+            String previous = stat.category;
+            stat.category = category;
+            remove(event.getProductId(), previous);
+            offer(event.getProductId(), stat);
+            dirty.add(event.getProductId());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${product.ranking.snapshot-delay:60000}",
+        initialDelayString = "${product.ranking.snapshot-delay:60000}")
+    public void snapshot() {
+        if (!ready) {
+            return;
+        }
+        List<ProductRanking> rows;
+        synchronized (this) {
+            rescaleIfNeeded();
+            if (dirty.isEmpty()) {
+                return;
+            }
+            LocalDateTime updatedAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(landmark), ZoneId.systemDefault());
+            rows = new ArrayList<>(dirty.size());
+            for (Long productId : dirty) {
+                Stat stat = stats.get(productId);
+                rows.add(new ProductRanking(productId, stat.category, stat.pendingSales, stat.pendingTrend, updatedAt));
+                stat.pendingSales = 0;
+                stat.pendingTrend = 0;
+            }
+            dirty.clear();
+        }
+        try {
+            productBulkRepository.upsertRankings(rows, decayRate);
+        } catch (RuntimeException e) {
+            log.error("상품 판매 순위 저장 실패 : {}", e.getMessage());
+            // 저장하지 못한 증가분은 다음 저장 때 함께 더한다.
+            synchronized (this) {
+                for (ProductRanking row : rows) {
+                    Stat stat = stats.get(row.getProductId());
+                    stat.pendingSales += row.getSalesCount();
+                    stat.pendingTrend += row.getTrendScore()
+                        * Math.exp(-decayRate * (landmark - toEpochSecond(row.getUpdatedAt())));
+                    dirty.add(row.getProductId());
+                }
+            }
+        }
+    }
+
+    /** 순서가 바뀐 순위만 조회용 목록을 새로 만든다. */
+    @Scheduled(fixedDelayString = "${product.ranking.publish-delay:1000}")
+    public synchronized void publish() {
+        boards.values().forEach(byCategory -> byCategory.values().forEach(TopN::publish));
+    }
+
+    /** 스냅샷이 없을 때 계산한 누적 판매량을 저장한다. 다른 서버가 먼저 저장했으면 그 값을 그대로 둔다. */
+    private void seed(List<ProductRanking> rows) {
+        LocalDateTime updatedAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(landmark), ZoneId.systemDefault());
+        List<ProductRanking> seeds = new ArrayList<>(rows.size());
+        rows.forEach(row -> seeds.add(new ProductRanking(row.getProductId(), row.getCategory(), row.getSalesCount(),
+            0d, updatedAt)));
+        try {
+            productBulkRepository.insertRankingsIfAbsent(seeds);
+        } catch (RuntimeException e) {
+            log.error("상품 판매 순위 초기값 저장 실패 : {}", e.getMessage());
+        }
+    }
+
+    private void offer(Long productId, Stat stat) {
+        if (stat.deleted) {
+            return;
+        }
+        for (String category : new String[]{ALL, stat.category}) {
+            if (category == null) {
+                continue;
+            }
+            boards.get(RankingType.BEST).computeIfAbsent(category, key -> new TopN(topSize)).add(productId, stat.sales);
+            boards.get(RankingType.TRENDING).computeIfAbsent(category, key -> new TopN(topSize)).add(productId, stat.trend);
+        }
+    }
+
+    /** 상품을 categories 의 순위에서 빼고 빈자리를 채운다. */
+    private void remove(Long productId, String... categories) {
+        for (RankingType type : RankingType.values()) {
+            for (String category : categories) {
+                TopN board = category == null ? null : boards.get(type).get(category);
+                if (board != null && board.remove(productId)) {
+                    refill(type, category, board);
+                }
+            }
+        }
+    }
+
+    /** 순위에서 빠진 자리를 채운다. 순위 밖 상품은 따로 정렬해 두지 않았으므로 카테고리 상품을 모두 훑는다. */
+    private void refill(RankingType type, String category, TopN board) {
+        stats.forEach((productId, stat) -> {
+            if (!stat.deleted && (category.equals(ALL) || category.equals(stat.category))) {
+                board.add(productId, type == RankingType.BEST ? stat.sales : stat.trend);
+            }
+        });
+    }
+
+    /** 기준 시각을 현재로 옮기고 점수를 그만큼 줄인다. 모든 점수에 같은 값을 곱하므로 순서는 그대로다. */
+    private void rescaleIfNeeded() {
+        long now = now();
+        if (now - landmark < RESCALE_SECONDS) {
+            return;
+        }
+        double factor = Math.exp(-decayRate * (now - landmark));
+        stats.values().forEach(stat -> {
+            stat.trend *= factor;
+            stat.pendingTrend *= factor;
+        });
+        boards.get(RankingType.TRENDING).values().forEach(board -> board.scale(factor));
+        landmark = now;
+    }
+
+    private long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static class Stat {
+
+        private String category;
+        private long sales;
+        private double trend;
+        // 마지막으로 저장한 뒤 늘어난 판매량과 점수
+        private long pendingSales;
+        private double pendingTrend;
+        private boolean deleted;
+
+        private Stat(String category) {
+            this.category = category;
+        }
+    }
+
+    /**
+     * 점수 상위 capacity 개. 점수는 늘어나기만 하므로, 순위 밖의 상품이 들어올 때는 가장 낮은 상품 하나만 밀려난다.
+     * 변경은 ProductRankingBoard 의 락 안에서만 하고, 조회는 순서가 바뀐 뒤 publish 로 새로 만든 ranked 목록을 읽는다.
+     */
+    private static class TopN {
+
+        private final int capacity;
+        private final TreeSet<Rank> ranks = new TreeSet<>();
+        private final Map<Long, Rank> members = new HashMap<>();
+        private volatile List<Long> ranked = List.of();
+        private boolean changed;
+
+        private TopN(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /** 점수를 반영한다. 순위에 새로 들거나 앞 상품을 넘어서 순서가 바뀐 경우에만 publish 때 목록을 새로 만든다. */
+        private void add(Long productId, double score) {
+            Rank rank = new Rank(productId, score);
+            Rank previous = members.remove(productId);
+            if (previous != null) {
+                Rank ahead = ranks.lower(previous);
+                ranks.remove(previous);
+                if (ahead != null && rank.compareTo(ahead) < 0) {
+                    changed = true;
+                }
+            } else if (ranks.size() >= capacity) {
+                Rank last = ranks.last();
+                if (rank.compareTo(last) > 0) {
+                    return;
+                }
+                ranks.pollLast();
+                members.remove(last.productId);
+                changed = true;
+            } else {
+                changed = true;
+            }
+            ranks.add(rank);
+            members.put(productId, rank);
+        }
+
+        private boolean remove(Long productId) {
+            Rank rank = members.remove(productId);
+            if (rank == null) {
+                return false;
+            }
+            ranks.remove(rank);
+            changed = true;
+            return true;
+        }
+
+        private void scale(double factor) {
+            List<Rank> scaled = new ArrayList<>(ranks.size());
+            ranks.forEach(rank -> scaled.add(new Rank(rank.productId, rank.score * factor)));
+            ranks.clear();
+            members.clear();
+            scaled.forEach(rank -> {
+                ranks.add(rank);
+                members.put(rank.productId, rank);
+            });
+        }
+
+        private void publish() {
+            if (!changed) {
+                return;
+            }
+            changed = false;
+            List<Long> ids = new ArrayList<>(ranks.size());
+            ranks.forEach(rank -> ids.add(rank.productId));
+            ranked = List.copyOf(ids);
+        }
+    }
+
+    /** 점수가 높은 순, 같으면 최근 등록 상품(id 가 큰 것) 순 */
+    private static class Rank implements Comparable<Rank> {
+
+        private final Long productId;
+        private final double score;
+
+        private Rank(Long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int compare = Double.compare(other.score, score);
+            return compare != 0 ? compare : other.productId.compareTo(productId);
+        }
+    }
+}
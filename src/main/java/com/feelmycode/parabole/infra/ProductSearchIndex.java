@@ -0,0 +1,305 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 상품명 검색용 메모리 역색인.
+ * 상품명을 글자 단위 2-gram 으로 쪼개 색인한다. 한글은 음절 하나가 한 글자이므로
+ * 형태소 분석 없이도 부분 문자열 검색('%x%')과 같은 결과를 DB 스캔 없이 찾을 수 있다.
+ * 한 글자 검색어는 1-gram 으로 찾는다. 공백도 글자로 보므로 DB 의 LIKE 검색과 같이 '양말세트' 로는
+ * '양말 세트' 를 찾지 않는다. 대소문자는 DB 의 collation 처럼 구분하지 않는다.
+ * 시작 시 전체 상품으로 새 색인을 만들어 바꿔 넣고, 상품이 바뀌면 커밋 뒤에 해당 상품만 다시 색인한다.
+ * 색인이 준비되기 전에는 {@link #isReady()} 가 false 이며 호출하는 쪽은 DB 검색을 사용한다.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM = 2;
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int loadPageSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildLock = new Object();
+    private Index index = new Index();
+    private Set<Long> touched;                  // 색인을 만드는 동안 바뀐 상품. 만드는 중이 아니면 null
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+        @Value("${product.search.index.enabled:true}") boolean enabled,
+        @Value("${product.search.index.load-page-size:1000}") int loadPageSize) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.loadPageSize = loadPageSize;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * 전체 상품을 새 색인에 넣은 뒤 한 번에 바꿔 넣는다. 읽는 동안 바뀐 상품은 바꿔 넣은 뒤 다시 색인한다.
+     * ({@link ProductFacetCounter} 와 같은 방식)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (buildLock) {
+            long start = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                touched = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index fresh = new Index();
+            Pageable pageable = PageRequest.of(0, loadPageSize, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepository.findAll(pageable);
+                page.forEach(fresh::put);
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+
+            Set<Long> replay;
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                replay = touched;
+                touched = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!replay.isEmpty()) {
+                Map<Long, Product> products = new HashMap<>();
+                productRepository.findAllById(replay).forEach(product -> products.put(product.getId(), product));
+                replay.forEach(productId -> apply(productId, products.get(productId)));
+            }
+            ready = true;
+            log.info("상품 검색 색인 생성 완료 : {} 건 / {} ms", fresh.entries.size(),
+                System.currentTimeMillis() - start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled || !event.isReindex()) {
+            return;
+        }
+        apply(event.getProductId(), productRepository.findById(event.getProductId()).orElse(null));
+    }
+
+    private void apply(Long productId, Product product) {
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            if (product != null) {
+                index.put(product);
+            }
+            if (touched != null) {
+                touched.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 상품명에 keyword 가 들어있는 상품 id 를 순위대로 반환한다.
+     * 순위 : 상품명 일치 > 앞부분 일치 > 일치 위치가 앞쪽 > 짧은 상품명 > 최근 등록
+     */
+    public Page<Long> search(String keyword, String category, Pageable pageable) {
+        String query = normalize(keyword);
+        List<Entry> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long id : index.candidates(query)) {
+                Entry entry = index.entries.get(id);
+                if (entry == null || (!category.equals("") && !category.equals(entry.category))) {
+                    continue;
+                }
+                int position = entry.name.indexOf(query);
+                if (position >= 0) {
+                    matches.add(entry.scored(position));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator
+            .comparingInt((Entry e) -> e.name.length() == query.length() ? 0 : 1)
+            .thenComparingInt(e -> e.position)
+            .thenComparingInt(e -> e.name.length())
+            .thenComparing(e -> e.id, Comparator.reverseOrder()));
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Entry entry : matches.subList(from, to)) {
+            ids.add(entry.id);
+        }
+        return new PageImpl<>(ids, pageable, matches.size());
+    }
+
+    /** 커서 조회용. beforeId 보다 작은 id 를 큰 순서로 최대 limit 건 반환한다. */
+    public List<Long> searchBefore(String keyword, String category, Long beforeId, int limit) {
+        String query = normalize(keyword);
+        List<Long> ids = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long id : index.candidates(query)) {
+                Entry entry = index.entries.get(id);
+                if (entry == null || id >= beforeId
+                    || (!category.equals("") && !category.equals(entry.category))) {
+                    continue;
+                }
+                if (entry.name.contains(query)) {
+                    ids.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ids.sort(Comparator.reverseOrder());
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+    }
+
+    /** 상품명은 2-gram 과 함께 1-gram 도 색인해서 한 글자 검색도 색인으로 처리한다. */
+    private static Set<String> indexGrams(String name) {
+        Set<String> grams = new HashSet<>(grams(name));
+        for (int i = 0; i < name.length(); i++) {
+            grams.add(name.substring(i, i + 1));
+        }
+        return grams;
+    }
+
+    private static List<String> grams(String text) {
+        if (text.length() < GRAM) {
+            return List.of(text);
+        }
+        List<String> grams = new ArrayList<>(text.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /** NFC 로 맞춰 자모가 분리된 한글도 같은 음절로 보고, 대소문자는 무시한다. */
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    /** 상품 id -> 색인 항목과 gram -> 상품 id 목록 */
+    private static class Index {
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        private Set<Long> candidates(String query) {
+            if (query.isEmpty()) {
+                return entries.keySet();
+            }
+            List<String> grams = grams(query);
+            // 가장 짧은 posting 부터 교집합을 구한다.
+            List<Set<Long>> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Set<Long> posting = postings.get(gram);
+                if (posting == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(posting);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        private void put(Product product) {
+            if (product.isDeleted() || product.getName() == null) {
+                return;
+            }
+            Entry entry = new Entry(product.getId(), normalize(product.getName()), product.getCategory());
+            entries.put(entry.id, entry);
+            for (String gram : indexGrams(entry.name)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.id);
+            }
+        }
+
+        private void remove(Long productId) {
+            Entry entry = entries.remove(productId);
+            if (entry == null) {
+                return;
+            }
+            for (String gram : indexGrams(entry.name)) {
+                Set<Long> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final Long id;
+        private final String name;
+        private final String category;
+        private final int position;
+
+        private Entry(Long id, String name, String category) {
+            this(id, name, category, 0);
+        }
+
+        private Entry(Long id, String name, String category, int position) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.position = position;
+        }
+
+        private Entry scored(int position) {
+            return new Entry(id, name, category, position);
+        }
+    }
+}
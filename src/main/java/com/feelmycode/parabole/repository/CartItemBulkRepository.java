@@ -0,0 +1,127 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.dto.CartItemRowDto;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/** 장바구니 상품을 엔티티 없이 한 번의 SQL 로 읽고 쓰는 저장소 */
+@Repository
+@RequiredArgsConstructor
+public class CartItemBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<CartItemRowDto> findRows(Long cartId) {
+        return jdbcTemplate.query("SELECT cart_item_id, product_id, product_cnt FROM cart_items WHERE cart_id = ? "
+                + "ORDER BY cart_item_id",
+            (rs, rowNum) -> new CartItemRowDto(rs.getLong("cart_item_id"), rs.getLong("product_id"),
+                rs.getInt("product_cnt")),
+            cartId);
+    }
+
+    /** 새 장바구니 상품을 저장하고 생성된 id 를 반환한다. */
+    public Long insert(Long cartId, Long productId, Integer cnt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO cart_items (cart_id, product_id, product_cnt, created_at, updated_at, is_deleted) "
+                    + "VALUES (?, ?, ?, ?, ?, false)",
+                Statement.RETURN_GENERATED_KEYS);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            ps.setLong(1, cartId);
+            ps.setLong(2, productId);
+            ps.setInt(3, cnt);
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /** 여러 상품(상품 id -> 수량)을 INSERT 한 번으로 저장하고 생성된 id 를 같은 순서로 반환한다. */
+    public List<Long> insertAll(Long cartId, Map<Long, Integer> counts) {
+        if (counts.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO cart_items (cart_id, product_id, product_cnt, created_at, updated_at, is_deleted) VALUES ");
+        List<Object> params = new ArrayList<>(counts.size() * 5);
+        counts.forEach((productId, cnt) -> {
+            if (!params.isEmpty()) {
+                sql.append(',');
+            }
+            sql.append("(?, ?, ?, ?, ?, false)");
+            params.add(cartId);
+            params.add(productId);
+            params.add(cnt);
+            params.add(now);
+            params.add(now);
+        });
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, keyHolder);
+
+        List<Long> ids = new ArrayList<>(counts.size());
+        for (Map<String, Object> key : keyHolder.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /** 장바구니 상품별 수량을 배치 UPDATE 로 반영한다. */
+    public void updateCounts(Map<Long, Integer> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((cartItemId, cnt) -> rows.add(new Object[]{cnt, now, cartItemId}));
+        jdbcTemplate.batchUpdate("UPDATE cart_items SET product_cnt = ?, updated_at = ? WHERE cart_item_id = ?", rows);
+    }
+
+    public int deleteByIds(Collection<Long> cartItemIds) {
+        if (cartItemIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM cart_items WHERE cart_item_id IN ("
+            + String.join(",", Collections.nCopies(cartItemIds.size(), "?")) + ")", cartItemIds.toArray());
+    }
+
+    /**
+     * before 이전에 마지막으로 바뀐 장바구니 상품을 limit 개까지 잠그고 [cart_item_id, user_id] 를 반환한다.
+     * 여러 인스턴스에서 동시에 돌아도 서로 다른 행을 가져간다.
+     */
+    public List<long[]> lockStaleRows(LocalDateTime before, int limit) {
+        return jdbcTemplate.query("SELECT ci.cart_item_id, c.user_id FROM cart_items ci "
+                + "JOIN carts c ON c.cart_id = ci.cart_id "
+                + "WHERE ci.updated_at < ? "
+                + "ORDER BY ci.cart_item_id LIMIT ? FOR UPDATE OF ci SKIP LOCKED",
+            (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)},
+            Timestamp.valueOf(before), limit);
+    }
+
+    /** 수정 시각이 없는(컬럼 추가 전에 담긴) 행에 limit 개까지 now 를 채운다. 채운 행 수를 반환 */
+    public int stampUntracked(LocalDateTime now, int limit) {
+        return jdbcTemplate.update("UPDATE cart_items SET updated_at = ? WHERE updated_at IS NULL LIMIT ?",
+            Timestamp.valueOf(now), limit);
+    }
+}
@@ -0,0 +1,60 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.dto.CouponStockDto;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** 여러 쿠폰의 수량 카운터를 한 번의 SQL 로 읽고 쓰는 저장소 */
+@Repository
+@RequiredArgsConstructor
+public class CouponBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 쿠폰 행들을 id 순서로 잠그고 남은 수량과 이벤트 등록 수량을 읽는다.
+     * 남은 수량은 {@link CouponRepository#lockAndGetRemains} 와 같은 식
+     */
+    public List<CouponStockDto> lockStocks(Collection<Long> couponIds) {
+        if (couponIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query("SELECT coupon_id, coupon_stock_mode = 'VIRTUAL' AS virtual_stock, "
+                + "CASE WHEN coupon_stock_mode = 'VIRTUAL' "
+                + "THEN coupon_publish_cnt - coupon_issued_cnt - coupon_enrolled_cnt - coupon_expired_free_cnt "
+                + "ELSE coupon_issued_cnt - coupon_assigned_cnt - coupon_enrolled_cnt - coupon_expired_free_cnt END "
+                + "AS remains, coupon_enrolled_cnt FROM coupons "
+                + "WHERE coupon_id IN (" + placeholders(couponIds.size()) + ") ORDER BY coupon_id FOR UPDATE",
+            (rs, rowNum) -> new CouponStockDto(rs.getLong("coupon_id"), rs.getBoolean("virtual_stock"),
+                rs.getLong("remains"), rs.getLong("coupon_enrolled_cnt")),
+            couponIds.toArray());
+    }
+
+    /** deltas 의 쿠폰별 이벤트 등록 수량 증감을 CASE 식 하나로 반영한다. */
+    public int addEnrolledCnts(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(
+            "UPDATE coupons SET coupon_enrolled_cnt = coupon_enrolled_cnt + CASE coupon_id");
+        List<Object> params = new ArrayList<>(deltas.size() * 3);
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            sql.append(" WHEN ? THEN ?");
+            params.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+        sql.append(" ELSE 0 END WHERE coupon_id IN (").append(placeholders(deltas.size())).append(')');
+        params.addAll(deltas.keySet());
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    private String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.domain.CouponIssueJob;
+import com.feelmycode.parabole.enumtype.CouponIssueState;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CouponIssueJobRepository extends JpaRepository<CouponIssueJob, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from CouponIssueJob j where j.id = :jobId")
+    Optional<CouponIssueJob> findForUpdate(@Param("jobId") Long jobId);
+
+    /** 주어진 상태에서 before 이후로 진행되지 않은 작업 */
+    @Query("select j.id from CouponIssueJob j where j.state in :states and j.updatedAt < :before order by j.id")
+    List<Long> findStalledIds(@Param("states") Collection<CouponIssueState> states,
+        @Param("before") LocalDateTime before);
+
+}
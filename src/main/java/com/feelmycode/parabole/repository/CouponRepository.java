@@ -4,6 +4,9 @@ import com.feelmycode.parabole.domain.Coupon;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,4 +19,82 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
         LocalDateTime start, LocalDateTime end);
 
     List<Coupon> findAllByNameAndSellerId(String couponName, Long sellerId);
+
+    /**
+     * VIRTUAL 모드: 남은 수량이 충분할 때만 배정 수량만큼 UserCoupon 을 생성한 것으로 기록한다.
+     * 반영된 행 수(0 또는 1)를 반환
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.issuedCnt = c.issuedCnt + :cnt, c.assignedCnt = c.assignedCnt + :cnt "
+        + "where c.id = :couponId and c.cnt - c.issuedCnt - c.enrolledCnt >= :cnt")
+    int claimVirtualStock(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    /** VIRTUAL 모드: 남은 수량이 충분할 때만 이벤트 등록 수량을 늘린다. */
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.enrolledCnt = c.enrolledCnt + :cnt "
+        + "where c.id = :couponId and c.cnt - c.issuedCnt - c.enrolledCnt >= :cnt")
+    int increaseEnrolledCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.enrolledCnt = c.enrolledCnt - :cnt "
+        + "where c.id = :couponId and c.enrolledCnt >= :cnt")
+    int decreaseEnrolledCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    /**
+     * 쿠폰 행을 잠그고 배정도 이벤트 등록도 되지 않은 수량을 읽는다. ({@link Coupon#getRemains()} 와 같은 식)
+     * 잠금 읽기이므로 트랜잭션이 먼저 읽어둔 값이 아니라 최신 값을 돌려준다.
+     */
+    @Query(value = "SELECT CASE WHEN coupon_stock_mode = 'VIRTUAL' "
+        + "THEN coupon_publish_cnt - coupon_issued_cnt - coupon_enrolled_cnt - coupon_expired_free_cnt "
+        + "ELSE coupon_issued_cnt - coupon_assigned_cnt - coupon_enrolled_cnt - coupon_expired_free_cnt END "
+        + "FROM coupons WHERE coupon_id = :couponId FOR UPDATE", nativeQuery = true)
+    Long lockAndGetRemains(@Param("couponId") Long couponId);
+
+    @Query(value = "SELECT coupon_enrolled_cnt FROM coupons WHERE coupon_id = :couponId FOR UPDATE",
+        nativeQuery = true)
+    Long lockAndGetEnrolledCnt(@Param("couponId") Long couponId);
+
+    /* 아래 카운터들은 UserCoupon 의 상태 전이와 같은 트랜잭션 안에서 호출한다. */
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.issuedCnt = c.issuedCnt + :cnt where c.id = :couponId")
+    int addIssuedCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.assignedCnt = c.assignedCnt + :cnt where c.id = :couponId")
+    int addAssignedCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.enrolledCnt = c.enrolledCnt + :cnt where c.id = :couponId")
+    int addEnrolledCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.usedCnt = c.usedCnt + :cnt where c.id = :couponId")
+    int addUsedCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt);
+
+    /** 만료된 수량을 더한다. free 는 그중 배정되지 않은 채 만료된 수량 */
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.expiredCnt = c.expiredCnt + :cnt, c.expiredFreeCnt = c.expiredFreeCnt + :free "
+        + "where c.id = :couponId")
+    int addExpiredCnt(@Param("couponId") Long couponId, @Param("cnt") int cnt, @Param("free") int free);
+
+    /**
+     * MATERIALIZED 쿠폰의 카운터를 user_coupons 와 user_coupon_archives 로부터 다시 계산한다.
+     * 카운터 컬럼이 추가되기 전에 만들어진 쿠폰을 맞추는 용도
+     */
+    @Modifying
+    @Query(value = "UPDATE coupons c SET "
+        + "c.coupon_issued_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id) "
+        + "+ (SELECT COUNT(*) FROM user_coupon_archives ua WHERE ua.coupon_id = c.coupon_id), "
+        + "c.coupon_assigned_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id AND uc.user_id IS NOT NULL) "
+        + "+ (SELECT COUNT(*) FROM user_coupon_archives ua WHERE ua.coupon_id = c.coupon_id AND ua.user_id IS NOT NULL), "
+        + "c.coupon_enrolled_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id AND uc.coupon_use_state = 'EventEnrolled'), "
+        + "c.coupon_used_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id AND uc.coupon_use_state = 'Used') "
+        + "+ (SELECT COUNT(*) FROM user_coupon_archives ua WHERE ua.coupon_id = c.coupon_id AND ua.coupon_use_state = 'Used'), "
+        + "c.coupon_expired_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id AND uc.coupon_use_state = 'Expired') "
+        + "+ (SELECT COUNT(*) FROM user_coupon_archives ua WHERE ua.coupon_id = c.coupon_id AND ua.coupon_use_state = 'Expired'), "
+        + "c.coupon_expired_free_cnt = (SELECT COUNT(*) FROM user_coupons uc WHERE uc.coupon_id = c.coupon_id AND uc.coupon_use_state = 'Expired' AND uc.user_id IS NULL) "
+        + "+ (SELECT COUNT(*) FROM user_coupon_archives ua WHERE ua.coupon_id = c.coupon_id AND ua.coupon_use_state = 'Expired' AND ua.user_id IS NULL) "
+        + "WHERE c.coupon_stock_mode IS NULL OR c.coupon_stock_mode = 'MATERIALIZED'", nativeQuery = true)
+    int recountMaterializedCounters();
 }
@@ -0,0 +1,27 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.domain.CouponReservation;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CouponReservationRepository extends JpaRepository<CouponReservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from CouponReservation r where r.eventId = :eventId and r.couponId = :couponId")
+    Optional<CouponReservation> findForUpdate(@Param("eventId") Long eventId, @Param("couponId") Long couponId);
+
+    /** 이벤트와 쿠폰의 모든 조합에 대한 예약 내역을 한 번에 잠근다. 요청에 없는 조합이 함께 잠길 수 있다. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from CouponReservation r where r.eventId in :eventIds and r.couponId in :couponIds")
+    List<CouponReservation> findAllForUpdate(@Param("eventIds") Collection<Long> eventIds,
+        @Param("couponIds") Collection<Long> couponIds);
+
+}
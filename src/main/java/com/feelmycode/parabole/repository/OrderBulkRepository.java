@@ -0,0 +1,91 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.dto.OrderInfoSimpleDto;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** 주문과 주문 상품을 엔티티 없이 한 번의 SQL 로 저장하고 정리하는 저장소 */
+@Repository
+@RequiredArgsConstructor
+public class OrderBulkRepository {
+
+    private static final int PENDING_STATE = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 주문 상품을 결제 전 상태로 한 번의 INSERT 문으로 저장한다.
+     * 상품 이름, 가격, 미리보기 이미지, 판매자 쇼핑몰 이름은 products 의 현재 값을 복사해 둔다.
+     */
+    public int insertInfos(Long orderId, List<OrderInfoSimpleDto> lines, Map<Long, Product> products,
+        LocalDateTime now) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        StringBuilder sql = new StringBuilder("INSERT INTO order_infos (order_id, order_info_state, product_id, "
+            + "product_name, product_cnt, product_price, seller_id, seller_store_name, product_thumbnail_img, "
+            + "created_at, updated_at, is_deleted) VALUES ");
+        List<Object> params = new ArrayList<>(lines.size() * 11);
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)");
+            OrderInfoSimpleDto line = lines.get(i);
+            Product product = products.get(line.getProductId());
+            params.add(orderId);
+            params.add(PENDING_STATE);
+            params.add(product.getId());
+            params.add(product.getName());
+            params.add(line.getProductCnt());
+            params.add(product.getPrice());
+            params.add(product.getSeller().getId());
+            params.add(product.getSeller().getStoreName());
+            params.add(product.getThumbnailImg());
+            params.add(timestamp);
+            params.add(timestamp);
+        }
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * before 이전에 마지막으로 바뀐 결제 전(state = -1) 주문을 limit 개까지 잠그고 id 를 반환한다.
+     * 여러 인스턴스에서 동시에 돌아도 서로 다른 행을 가져간다.
+     */
+    public List<Long> lockStalePendingIds(LocalDateTime before, int limit) {
+        return jdbcTemplate.queryForList("SELECT order_id FROM orders "
+                + "WHERE order_state = ? AND updated_at < ? "
+                + "ORDER BY order_id LIMIT ? FOR UPDATE SKIP LOCKED",
+            Long.class, PENDING_STATE, Timestamp.valueOf(before), limit);
+    }
+
+    /** 주문들의 주문 상품을 지운다. 지운 행 수를 반환 */
+    public int deleteInfosByOrderIds(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM order_infos WHERE order_id IN (" + placeholders(orderIds.size()) + ")",
+            orderIds.toArray());
+    }
+
+    public int deleteByIds(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM orders WHERE order_id IN (" + placeholders(orderIds.size()) + ")",
+            orderIds.toArray());
+    }
+
+    private String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.domain.ProductRanking;
+import com.feelmycode.parabole.dto.ProductFacetRowDto;
+import com.feelmycode.parabole.dto.ProductImageDto;
+import com.feelmycode.parabole.dto.ProductStockDto;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** 여러 상품의 재고, 이미지, 판매 순위를 한 번의 SQL 로 읽고 쓰는 저장소 */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 상품 행들을 id 순서로 잠그고 현재 재고를 읽는다. */
+    public List<ProductStockDto> lockStocks(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query("SELECT product_id, seller_id, product_category, product_remains FROM products "
+                + "WHERE product_id IN (" + placeholders(productIds.size()) + ") ORDER BY product_id FOR UPDATE",
+            (rs, rowNum) -> new ProductStockDto(rs.getLong("product_id"), rs.getLong("seller_id"),
+                rs.getString("product_category"), rs.getLong("product_remains")),
+            productIds.toArray());
+    }
+
+    /** deltas 의 상품별 증감을 CASE 식 하나로 반영한다. */
+    public int addRemains(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE products SET product_remains = product_remains + CASE product_id");
+        List<Object> params = new ArrayList<>(deltas.size() * 3);
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            sql.append(" WHEN ? THEN ?");
+            params.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+        sql.append(" ELSE 0 END, updated_at = NOW() WHERE product_id IN (").append(placeholders(deltas.size())).append(')');
+        params.addAll(deltas.keySet());
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /** 상세 이미지 행들을 한 번의 INSERT 문으로 저장한다. */
+    public int insertDetails(Long productId, List<String> imgUrls, String imgCaption) {
+        if (imgUrls.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO product_details (product_id, product_detail_img, product_detail_img_caption) VALUES ");
+        List<Object> params = new ArrayList<>(imgUrls.size() * 3);
+        for (int i = 0; i < imgUrls.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(?, ?, ?)");
+            params.add(productId);
+            params.add(imgUrls.get(i));
+            params.add(imgCaption);
+        }
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * 마지막 저장 이후 늘어난 판매량과 최근 판매 점수를 한 번의 배치로 더한다. 여러 서버가 각자 더해도 서로 덮어쓰지 않는다.
+     * 점수는 updated_at 시점 기준이므로 두 시점 중 늦은 쪽으로 감쇠시킨 뒤 더한다. decayRate 는 초당 감쇠율
+     */
+    public void upsertRankings(List<ProductRanking> rankings, double decayRate) {
+        if (rankings.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(rankings.size());
+        for (ProductRanking ranking : rankings) {
+            rows.add(new Object[]{ranking.getProductId(), ranking.getCategory(), ranking.getSalesCount(),
+                ranking.getTrendScore(), Timestamp.valueOf(ranking.getUpdatedAt()), decayRate, decayRate});
+        }
+        // MySQL 은 ON DUPLICATE KEY UPDATE 를 왼쪽부터 적용하므로 updated_at 은 trend_score 를 계산한 뒤에 바꾼다.
+        jdbcTemplate.batchUpdate("INSERT INTO product_rankings (product_id, product_category, sales_count, "
+            + "trend_score, updated_at) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "product_category = VALUES(product_category), sales_count = sales_count + VALUES(sales_count), "
+            + "trend_score = "
+            + "trend_score * EXP(-? * GREATEST(0, TIMESTAMPDIFF(SECOND, updated_at, VALUES(updated_at)))) "
+            + "+ VALUES(trend_score) * EXP(-? * GREATEST(0, TIMESTAMPDIFF(SECOND, VALUES(updated_at), updated_at))), "
+            + "updated_at = GREATEST(updated_at, VALUES(updated_at))", rows);
+    }
+
+    /** 스냅샷이 비어 있을 때 계산한 누적 판매량을 넣는다. 이미 있는 상품은 그대로 둔다. */
+    public void insertRankingsIfAbsent(List<ProductRanking> rankings) {
+        if (rankings.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(rankings.size());
+        for (ProductRanking ranking : rankings) {
+            rows.add(new Object[]{ranking.getProductId(), ranking.getCategory(), ranking.getSalesCount(),
+                ranking.getTrendScore(), Timestamp.valueOf(ranking.getUpdatedAt())});
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO product_rankings (product_id, product_category, sales_count, "
+            + "trend_score, updated_at) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    /** 주문 상품 상태가 orderInfoState 인 판매량 합계. 스냅샷이 없을 때 한 번만 사용한다. */
+    public List<ProductRanking> sumSales(Integer orderInfoState) {
+        return jdbcTemplate.query("SELECT o.product_id, p.product_category, SUM(o.product_cnt) AS sales_count "
+                + "FROM order_infos o JOIN products p ON p.product_id = o.product_id "
+                + "WHERE o.order_info_state = ? AND p.is_deleted = false GROUP BY o.product_id, p.product_category",
+            (rs, rowNum) -> new ProductRanking(rs.getLong("product_id"), rs.getString("product_category"),
+                rs.getLong("sales_count"), 0d, null),
+            orderInfoState);
+    }
+
+    /** 판매 순위 스냅샷에 있는 상품 중 삭제된 상품 */
+    public List<Long> findDeletedRankedIds() {
+        return jdbcTemplate.queryForList("SELECT r.product_id FROM product_rankings r "
+            + "JOIN products p ON p.product_id = r.product_id WHERE p.is_deleted = true", Long.class);
+    }
+
+    /** 삭제되지 않은 상품의 판매자와 카테고리 */
+    public List<ProductFacetRowDto> findLiveFacetRows() {
+        return jdbcTemplate.query("SELECT product_id, seller_id, product_category FROM products WHERE is_deleted = false",
+            (rs, rowNum) -> new ProductFacetRowDto(rs.getLong("product_id"), rs.getLong("seller_id"),
+                rs.getString("product_category")));
+    }
+
+    /**
+     * 축소본 상태가 기록되지 않은 썸네일을 상품 id 가 afterId 보다 큰 것부터 id 순서로 최대 limit 장.
+     * 상태 인덱스에 기본 키가 붙어 있으므로 인덱스 범위만 읽는다.
+     */
+    public List<ProductImageDto> findUnderivedThumbnails(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT product_id, product_thumbnail_img FROM products "
+                + "WHERE product_thumbnail_derived IS NULL AND product_id > ? ORDER BY product_id LIMIT ?",
+            (rs, rowNum) -> new ProductImageDto(rs.getLong("product_id"), rs.getLong("product_id"),
+                rs.getString("product_thumbnail_img")),
+            afterId, limit);
+    }
+
+    /** 축소본 상태가 기록되지 않은 상세 이미지를 상세 이미지 id 가 afterId 보다 큰 것부터 id 순서로 최대 limit 장 */
+    public List<ProductImageDto> findUnderivedDetailImages(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, product_id, product_detail_img FROM product_details "
+                + "WHERE product_detail_img_derived IS NULL AND id > ? AND product_detail_img IS NOT NULL "
+                + "ORDER BY id LIMIT ?",
+            (rs, rowNum) -> new ProductImageDto(rs.getLong("id"), rs.getLong("product_id"),
+                rs.getString("product_detail_img")),
+            afterId, limit);
+    }
+
+    /** 상품의 썸네일과 상세 이미지 중 url 인 것에 축소본 상태를 기록한다. */
+    public void markDerived(Long productId, String url, boolean derived) {
+        jdbcTemplate.update("UPDATE products SET product_thumbnail_derived = ? "
+            + "WHERE product_id = ? AND product_thumbnail_img = ?", derived, productId, url);
+        jdbcTemplate.update("UPDATE product_details SET product_detail_img_derived = ? "
+            + "WHERE product_id = ? AND product_detail_img = ?", derived, productId, url);
+    }
+
+    private String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
+    }
+}
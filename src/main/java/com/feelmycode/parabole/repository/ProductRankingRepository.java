@@ -0,0 +1,8 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.domain.ProductRanking;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductRankingRepository extends JpaRepository<ProductRanking, Long> {
+
+}
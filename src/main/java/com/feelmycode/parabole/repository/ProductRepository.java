@@ -1,9 +1,20 @@
 package com.feelmycode.parabole.repository;
 
 import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.dto.ProductDetailRowDto;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -15,4 +26,44 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findAllByNameContainingAndIsDeletedFalse(String name, Pageable pageable);
     Page<Product> findAllByNameContainingAndCategoryAndIsDeletedFalse(String name, String category, Pageable pageable);
     Product findByName(String name);
+
+    // 판매자를 함께 읽는 IN 조회
+    @EntityGraph(attributePaths = "seller")
+    List<Product> findAllByIdIn(Collection<Long> ids);
+
+    // 커서 기반 조회. Slice 는 count 쿼리 없이 size + 1 건을 읽어 다음 페이지 여부만 판단한다.
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllByIsDeletedFalseAndIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllBySellerIdAndIsDeletedFalseAndIdLessThanOrderByIdDesc(Long sellerId, Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllByCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(String category, Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllBySellerIdAndCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(Long sellerId, String category, Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllByNameContainingAndIsDeletedFalseAndIdLessThanOrderByIdDesc(String name, Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
+    Slice<Product> findAllByNameContainingAndCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(String name, String category, Long id, Pageable pageable);
+
+    /** 재고가 충분할 때만 차감한다. 반영된 행 수(0 또는 1)를 반환 */
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.remains = p.remains - :cnt where p.id = :productId and p.remains >= :cnt")
+    int decreaseRemains(@Param("productId") Long productId, @Param("cnt") Long cnt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.remains = p.remains + :cnt where p.id = :productId")
+    int increaseRemains(@Param("productId") Long productId, @Param("cnt") Long cnt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :productId")
+    Optional<Product> findForUpdate(@Param("productId") Long productId);
+
+    /** 상품, 판매자 상호, 상세 이미지를 한 번에 읽는 상세 화면용 프로젝션. 상세 이미지마다 한 행 */
+    @Query("select new com.feelmycode.parabole.dto.ProductDetailRowDto("
+        + "p.id, p.name, s.id, s.storeName, p.salesStatus, p.remains, p.price, p.category, p.thumbnailImg, "
+        + "p.thumbnailDerived, p.createdAt, p.updatedAt, p.deletedAt, p.isDeleted, d.id, d.img, d.imgDerived, "
+        + "d.imgCaption) "
+        + "from Product p left join p.seller s left join p.productDetailList d "
+        + "where p.id in :productIds order by p.id, d.id")
+    List<ProductDetailRowDto> findDetailRows(@Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,182 @@
+package com.feelmycode.parabole.repository;
+
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * UserCoupon 엔티티 생명주기를 거치지 않고 user_coupons 테이블에 직접 대량으로 쓰는 저장소.
+ * IDENTITY 전략 때문에 Hibernate 가 insert 를 배치로 묶지 못하므로 multi-row insert 를 직접 만든다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserCouponBulkRepository {
+
+    private static final String INSERT_PREFIX = "INSERT INTO user_coupons "
+        + "(serial_no, coupon_id, user_id, coupon_use_state, coupon_acquisition_date, "
+        + "created_at, updated_at, is_deleted) VALUES ";
+    private static final String VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 배정되지 않은(NotUsed) 쿠폰을 serial 수만큼 한 번의 INSERT 문으로 저장한다. */
+    public int insertNotAssigned(Long couponId, List<String> serials, LocalDateTime now) {
+        return insert(couponId, serials, null, now);
+    }
+
+    /** 사용자에게 배정된 쿠폰을 저장한다. serials 와 userIds 는 같은 순서로 짝지어진다. */
+    public int insertAssigned(Long couponId, List<String> serials, List<Long> userIds,
+        LocalDateTime now) {
+        return insert(couponId, serials, userIds, now);
+    }
+
+    private int insert(Long couponId, List<String> serials, List<Long> userIds,
+        LocalDateTime now) {
+        if (serials.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> params = new ArrayList<>(serials.size() * 7);
+        for (int i = 0; i < serials.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(VALUES_ROW);
+            params.add(serials.get(i));
+            params.add(couponId);
+            params.add(userIds == null ? null : userIds.get(i));
+            params.add(CouponUseState.NotUsed.name());
+            params.add(timestamp);
+            params.add(timestamp);
+            params.add(timestamp);
+        }
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * 배정되지 않은 쿠폰을 limit 개까지 잠그고 id 를 반환한다.
+     * 다른 트랜잭션이 잠근 행은 건너뛰므로 같은 쿠폰을 동시에 배정해도 서로 기다리거나 겹치지 않는다.
+     */
+    public List<Long> lockNotAssignedIds(Long couponId, int limit) {
+        return jdbcTemplate.queryForList("SELECT user_coupon_id FROM user_coupons "
+                + "WHERE coupon_id = ? AND user_id IS NULL AND coupon_use_state = ? "
+                + "ORDER BY user_coupon_id LIMIT ? FOR UPDATE SKIP LOCKED",
+            Long.class, couponId, CouponUseState.NotUsed.name(), limit);
+    }
+
+    /** userCouponIds[i] 를 userIds[i] 에게 배정하는 한 번의 UPDATE 문. 실제 배정된 행 수를 반환 */
+    public int assignUsers(List<Long> userCouponIds, List<Long> userIds, LocalDateTime now) {
+        if (userCouponIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        StringBuilder sql = new StringBuilder("UPDATE user_coupons SET user_id = CASE user_coupon_id");
+        List<Object> params = new ArrayList<>(userCouponIds.size() * 3 + 2);
+        for (int i = 0; i < userCouponIds.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+            params.add(userCouponIds.get(i));
+            params.add(userIds.get(i));
+        }
+        sql.append(" END, coupon_acquisition_date = ?, updated_at = ? WHERE user_coupon_id IN (")
+            .append(userCouponIds.stream().map(id -> "?").collect(Collectors.joining(",")))
+            .append(") AND user_id IS NULL");
+        params.add(timestamp);
+        params.add(timestamp);
+        params.addAll(userCouponIds);
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * 만료일이 지난 쿠폰의 NotUsed 행을 limit 개까지 잠그고 [user_coupon_id, coupon_id, 미배정 여부(1/0)] 를 반환한다.
+     * 여러 인스턴스에서 동시에 돌아도 서로 다른 행을 가져간다.
+     */
+    public List<long[]> lockExpiredRows(LocalDateTime now, int limit) {
+        return jdbcTemplate.query("SELECT uc.user_coupon_id, uc.coupon_id, uc.user_id IS NULL FROM user_coupons uc "
+                + "JOIN coupons c ON c.coupon_id = uc.coupon_id "
+                + "WHERE c.coupon_expires_at <= ? AND uc.coupon_use_state = ? "
+                + "ORDER BY uc.user_coupon_id LIMIT ? FOR UPDATE OF uc SKIP LOCKED",
+            (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getBoolean(3) ? 1 : 0},
+            Timestamp.valueOf(now), CouponUseState.NotUsed.name(), limit);
+    }
+
+    /** NotUsed 상태인 행만 Expired 로 바꾼다. 바뀐 행 수를 반환 */
+    public int expire(List<Long> userCouponIds, LocalDateTime now) {
+        if (userCouponIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>(userCouponIds.size() + 3);
+        params.add(CouponUseState.Expired.name());
+        params.add(Timestamp.valueOf(now));
+        params.addAll(userCouponIds);
+        params.add(CouponUseState.NotUsed.name());
+        return jdbcTemplate.update("UPDATE user_coupons SET coupon_use_state = ?, updated_at = ? "
+            + "WHERE user_coupon_id IN (" + placeholders(userCouponIds.size()) + ") "
+            + "AND coupon_use_state = ?", params.toArray());
+    }
+
+    /**
+     * before 이전에 사용 완료되었거나 만료된 행을 limit 개까지 잠그고 id 를 반환한다.
+     * 주문에 적용된 쿠폰은 order_infos 가 참조하고 있으므로 옮기지 않는다.
+     */
+    public List<Long> lockArchivableIds(LocalDateTime before, int limit) {
+        return jdbcTemplate.queryForList("SELECT uc.user_coupon_id FROM user_coupons uc "
+                + "WHERE uc.coupon_use_state IN (?, ?) AND uc.updated_at < ? "
+                + "AND NOT EXISTS (SELECT 1 FROM order_infos oi WHERE oi.user_coupon_id = uc.user_coupon_id) "
+                + "ORDER BY uc.user_coupon_id LIMIT ? FOR UPDATE SKIP LOCKED",
+            Long.class, CouponUseState.Used.name(), CouponUseState.Expired.name(),
+            Timestamp.valueOf(before), limit);
+    }
+
+    /** 행을 user_coupon_archives 로 복사한 뒤 user_coupons 에서 지운다. 옮긴 행 수를 반환 */
+    public int archive(List<Long> userCouponIds, LocalDateTime now) {
+        if (userCouponIds.isEmpty()) {
+            return 0;
+        }
+        String in = placeholders(userCouponIds.size());
+        List<Object> params = new ArrayList<>(userCouponIds.size() + 1);
+        params.add(Timestamp.valueOf(now));
+        params.addAll(userCouponIds);
+        jdbcTemplate.update("INSERT INTO user_coupon_archives (user_coupon_id, serial_no, coupon_id, user_id, "
+            + "coupon_use_state, coupon_acquisition_date, coupon_use_date, created_at, updated_at, archived_at) "
+            + "SELECT user_coupon_id, serial_no, coupon_id, user_id, coupon_use_state, coupon_acquisition_date, "
+            + "coupon_use_date, created_at, updated_at, ? FROM user_coupons WHERE user_coupon_id IN (" + in + ")",
+            params.toArray());
+        return jdbcTemplate.update("DELETE FROM user_coupons WHERE user_coupon_id IN (" + in + ")",
+            userCouponIds.toArray());
+    }
+
+    /** 배정되지 않은 NotUsed 쿠폰을 limit 개까지 EventEnrolled 로 바꾸는 한 번의 UPDATE 문. 바뀐 행 수를 반환 */
+    public int enrollForEvent(Long couponId, int limit, LocalDateTime now) {
+        return changeNotAssignedState(couponId, CouponUseState.NotUsed, CouponUseState.EventEnrolled, limit, now);
+    }
+
+    /** EventEnrolled 쿠폰을 limit 개까지 NotUsed 로 되돌린다. 바뀐 행 수를 반환 */
+    public int releaseFromEvent(Long couponId, int limit, LocalDateTime now) {
+        return changeNotAssignedState(couponId, CouponUseState.EventEnrolled, CouponUseState.NotUsed, limit, now);
+    }
+
+    private int changeNotAssignedState(Long couponId, CouponUseState from, CouponUseState to, int limit,
+        LocalDateTime now) {
+        if (limit <= 0) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE user_coupons SET coupon_use_state = ?, updated_at = ? "
+                + "WHERE coupon_id = ? AND user_id IS NULL AND coupon_use_state = ? "
+                + "ORDER BY user_coupon_id LIMIT ?",
+            to.name(), Timestamp.valueOf(now), couponId, from.name(), limit);
+    }
+
+    private String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
+    }
+}
@@ -1,14 +1,54 @@
 package com.feelmycode.parabole.repository;
 
 import com.feelmycode.parabole.domain.UserCoupon;
+import com.feelmycode.parabole.dto.CouponCandidateDto;
+import com.feelmycode.parabole.dto.UserCouponSerialDto;
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserCouponRepository extends JpaRepository<UserCoupon, Long> {
 
     List<UserCoupon> findAllByUserId(Long userId);
+
+    /**
+     * 쿠폰 사용. NotUsed -> Used 전이와 쿠폰의 사용 수량 증가를 한 문장으로 처리한다.
+     * 소유자, 상태, 만료일이 모두 맞을 때만 반영되며 성공하면 2(두 테이블의 행), 아니면 0 을 반환
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE user_coupons uc JOIN coupons c ON c.coupon_id = uc.coupon_id "
+        + "SET uc.coupon_use_state = 'Used', uc.coupon_use_date = :now, uc.updated_at = :now, "
+        + "c.coupon_used_cnt = c.coupon_used_cnt + 1 "
+        + "WHERE uc.serial_no = :serialNo AND uc.user_id = :userId AND uc.coupon_use_state = 'NotUsed' "
+        + "AND c.coupon_expires_at > :now", nativeQuery = true)
+    int redeem(@Param("serialNo") String serialNo, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("select uc from UserCoupon uc join fetch uc.coupon c join fetch c.seller "
+        + "where uc.user.id = :userId and uc.useState = :useState and c.validAt <= :now and c.expiresAt > :now")
+    List<UserCoupon> findUsableByUserId(@Param("userId") Long userId,
+        @Param("useState") CouponUseState useState, @Param("now") LocalDateTime now);
     UserCoupon findBySerialNo(String serialNo);
+    long countByCouponIdAndUserIsNullAndUseState(Long couponId, CouponUseState useState);
+
+    @Query("select new com.feelmycode.parabole.dto.UserCouponSerialDto(uc.id, uc.coupon.id, uc.useState) "
+        + "from UserCoupon uc where uc.serialNo = :serialNo")
+    Optional<UserCouponSerialDto> findSerialDtoBySerialNo(@Param("serialNo") String serialNo);
+
+    @Query("select new com.feelmycode.parabole.dto.CouponCandidateDto("
+        + "uc.serialNo, c.name, c.type, c.discountValue, s.id, s.storeName) "
+        + "from UserCoupon uc join uc.coupon c join c.seller s "
+        + "where uc.user.id = :userId and s.id in :sellerIds and uc.useState = :useState "
+        + "and c.validAt <= :now and c.expiresAt > :now")
+    List<CouponCandidateDto> findCandidates(@Param("userId") Long userId,
+        @Param("sellerIds") Collection<Long> sellerIds, @Param("useState") CouponUseState useState,
+        @Param("now") LocalDateTime now);
 
 }
@@ -6,20 +6,25 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.feelmycode.parabole.infra.ImageStorage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class AwsS3Service {
+@ConditionalOnProperty(name = "storage.type", havingValue = "s3", matchIfMissing = true)
+public class AwsS3Service implements ImageStorage {
 
     private AmazonS3 amazonS3;
 
@@ -44,10 +49,43 @@ public class AwsS3Service {
 
     public String upload(MultipartFile file) throws IOException {
         String fileName = createFileName(file.getOriginalFilename());
+        return store(fileName, file.getInputStream(), file.getSize(), file.getContentType());
+    }
+
+    /** 길이를 알려줘서 SDK 가 스트림 전체를 메모리에 모으지 않고 바로 전송하게 한다. */
+    @Override
+    public String store(String key, InputStream inputStream, long contentLength, String contentType)
+        throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        try (InputStream in = inputStream) {
+            amazonS3.putObject(new PutObjectRequest(bucket, key, in, metadata)
+                .withCannedAcl(CannedAccessControlList.PublicRead));
+        }
+        return getUrl(key);
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return amazonS3.getObject(bucket, key).getObjectContent();
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return amazonS3.doesObjectExist(bucket, key);
+    }
+
+    @Override
+    public void delete(String key) {
+        amazonS3.deleteObject(bucket, key);
+    }
 
-        amazonS3.putObject(new PutObjectRequest(bucket, fileName, file.getInputStream(), null)
-            .withCannedAcl(CannedAccessControlList.PublicRead));
-        return amazonS3.getUrl(bucket, fileName).toString();
+    @Override
+    public String getUrl(String key) {
+        return amazonS3.getUrl(bucket, key).toString();
     }
 
     private String createFileName(String originalFileName) { //파일이름 유니크하게
@@ -1,27 +1,30 @@
 package com.feelmycode.parabole.service;
 
-import com.feelmycode.parabole.domain.Cart;
-import com.feelmycode.parabole.domain.CartItem;
 import com.feelmycode.parabole.domain.Product;
-import com.feelmycode.parabole.domain.Seller;
 import com.feelmycode.parabole.dto.CartAddItemRequestDto;
+import com.feelmycode.parabole.dto.CartBatchRequestDto;
 import com.feelmycode.parabole.dto.CartResponseDto;
 import com.feelmycode.parabole.dto.CartItemDeleteRequestDto;
 import com.feelmycode.parabole.dto.CartItemDto;
 import com.feelmycode.parabole.dto.CartItemUpdateRequestDto;
 import com.feelmycode.parabole.dto.CartBySellerDto;
-import com.feelmycode.parabole.dto.CouponResponseDto;
+import com.feelmycode.parabole.dto.CartItemRowDto;
+import com.feelmycode.parabole.dto.CouponAllocationResponseDto;
+import com.feelmycode.parabole.dto.ProductDto;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
-import com.feelmycode.parabole.repository.CartItemRepository;
+import com.feelmycode.parabole.infra.CartStore;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
@@ -30,107 +33,126 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class CartItemService {
 
-    private final CartItemRepository cartItemRepository;
-    private final CartService cartService;
+    private static final int MAX_ITEMS = 100;
+
+    private final CartStore cartStore;
     private final ProductService productService;
+    private final ProductStockService productStockService;
     private final CouponService couponService;
+    private final CouponRecommendService couponRecommendService;
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void addItem(Long userId, CartAddItemRequestDto dto) {
-        Cart cart = cartService.getCart(userId);
-
         Product product = productService.getProduct(dto.getProductId());
-        if(product.getRemains() < dto.getCnt()) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고보다 많습니다. 최대 "+product.getRemains()+"개 까지 구매 가능합니다.");
-        }
-
-        if(cartItemRepository.findByCartIdAndProductId(cart.getId(), product.getId()).isPresent()){
-            CartItem cartItem = cartItemRepository.findByCartIdAndProductId(
-                cart.getId(), product.getId()).get();
-            updateItem(userId, new CartItemUpdateRequestDto(
-                cartItem.getId(), cartItem.getProduct().getId(), dto.getCnt()));
-            throw new ParaboleException(HttpStatus.BAD_REQUEST, "이미 등록된 상품입니다.");
-        }
-
-        Long count = cartItemRepository.countByCartId(cart.getId());
-        if(count >= 100) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 넣을 수 있는 물품이 최대 입니다.");
-        }
-
-        CartItem cartItem = new CartItem(cart, product, dto.getCnt());
-        cartItemRepository.save(cartItem);
+        checkRemains(product, dto.getCnt());
+        cartStore.add(userId, product.getId(), dto.getCnt(), MAX_ITEMS);
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateItem(Long userId, CartItemUpdateRequestDto cartItemDto) {
-        CartItem currentCartItem = getCartItem(cartItemDto.getCartItemId());
-        Product product = currentCartItem.getProduct();
-
-        if(product.getRemains() < cartItemDto.getCnt()) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고보다 많습니다. 최대 "+product.getRemains()+"개 까지 구매 가능합니다.");
-        }
-
-        currentCartItem.setCnt(cartItemDto.getCnt());
-        cartItemRepository.save(currentCartItem);
+        CartItemRowDto currentCartItem = cartStore.getItem(userId, cartItemDto.getCartItemId());
+        checkRemains(productService.getProduct(currentCartItem.getProductId()), cartItemDto.getCnt());
+        cartStore.update(userId, cartItemDto.getCartItemId(), cartItemDto.getCnt());
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cartListDelete(CartItemDeleteRequestDto cartItemRequestDto) {
-        cartItemRepository.deleteById(cartItemRequestDto.getCartItemId());
-    }
-
-    private CartItem getCartItem(Long cartItemId) {
-        return cartItemRepository.findById(cartItemId)
-            .orElseThrow(() -> new ParaboleException(HttpStatus.BAD_REQUEST, "장바구니에 상품이 존재하지 않습니다."));
+        cartStore.remove(cartItemRequestDto.getUserId(), cartItemRequestDto.getCartItemId());
     }
 
-    public CartResponseDto getCartItemGroupBySellerIdOrderByIdDesc(Long userId) {
-
-        Long cnt = 0L;
-
-        Cart cart = cartService.getCart(userId);
+    /**
+     * 여러 상품 추가, 수량 변경, 삭제를 한 번에 반영하고 바뀐 장바구니를 판매자별로 묶어 반환한다.
+     * 재고는 관련 상품을 IN 쿼리 한 번으로 읽어 확인하며, 하나라도 실패하면 아무것도 바꾸지 않는다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CartResponseDto applyBatch(Long userId, CartBatchRequestDto dto) {
+        Map<Long, Integer> adds = new LinkedHashMap<>();
+        for (CartAddItemRequestDto add : dto.getAddList()) {
+            checkCnt(add.getCnt());
+            if (adds.put(add.getProductId(), add.getCnt()) != null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "같은 상품을 여러 번 추가할 수 없습니다.");
+            }
+        }
+        Map<Long, Integer> updates = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>(adds);
+        for (CartItemUpdateRequestDto update : dto.getUpdateList()) {
+            checkCnt(update.getCnt());
+            if (updates.put(update.getCartItemId(), update.getCnt()) != null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "같은 장바구니 상품을 여러 번 수정할 수 없습니다.");
+            }
+            // 상품 id 는 요청 값이 아니라 장바구니에 담긴 값을 쓴다.
+            Long productId = cartStore.getItem(userId, update.getCartItemId()).getProductId();
+            quantities.merge(productId, update.getCnt(), Math::max);
+        }
+        Set<Long> deletes = new HashSet<>(dto.getDeleteList());
 
-        List<CartItem> getCartItems = cartItemRepository.findAllByCartId(cart.getId())
-            .stream().sorted(Comparator.comparing(CartItem::getId).reversed())
-            .toList();
+        Map<Long, Product> products = productService.getProductsWithSeller(quantities.keySet());
+        quantities.forEach((productId, cnt) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "상품이 존재하지 않습니다. (상품 id : " + productId + ")");
+            }
+            checkRemains(product, cnt);
+        });
 
-        HashMap<String, Integer> sellerIdMap = new HashMap<>();
+        cartStore.applyBatch(userId, adds, updates, deletes, MAX_ITEMS);
+        return getCartItemGroupBySellerIdOrderByIdDesc(userId);
+    }
 
-        int idx = 1;
-        for(CartItem item : getCartItems) {
-            Seller seller = item.getProduct().getSeller();
-            String key = seller.getId()+"$"+seller.getStoreName();
-            if(!sellerIdMap.containsKey(key)) {
-                sellerIdMap.put(key, idx++);
-            }
+    private void checkCnt(Integer cnt) {
+        if (cnt == null || cnt <= 0) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "수량이 올바르지 않습니다.");
         }
+    }
 
-        List<CartItemDto>[] getItemList = new ArrayList[sellerIdMap.size()+1];
-        for(int i = 0; i <= sellerIdMap.size(); i++) {
-            getItemList[i] = new ArrayList<>();
+    private void checkRemains(Product product, Integer cnt) {
+        Long remains = productStockService.getRemains(product);
+        if(remains < cnt) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고보다 많습니다. 최대 "+remains+"개 까지 구매 가능합니다.");
         }
+    }
 
-        for (CartItem item : getCartItems) {
-            cnt++;
-            Seller seller = item.getProduct().getSeller();
-            String key = seller.getId()+"$"+seller.getStoreName();
-            getItemList[sellerIdMap.get(key)].add(new CartItemDto(item));
+    /** 메모리 장바구니의 상품들을 IN 쿼리 한 번으로 읽어 최근 담은 순서로 반환 */
+    private List<CartItemDto> getCartItems(Long userId) {
+        List<CartItemRowDto> rows = cartStore.getItems(userId);
+        Map<Long, Product> products = productService.getProductsWithSeller(
+            rows.stream().map(CartItemRowDto::getProductId).toList());
+
+        List<CartItemDto> items = new ArrayList<>(rows.size());
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            CartItemRowDto row = rows.get(i);
+            Product product = products.get(row.getProductId());
+            if (product != null) {
+                items.add(new CartItemDto(row.getCartItemId(), product, row.getCnt()));
+            }
         }
+        return items;
+    }
 
-        List<CartBySellerDto> cartBySellerDtoList = new ArrayList<>();
-
-        HashSet<Long> checkContainsSellerId = new HashSet<>();
-
-        for(String key : sellerIdMap.keySet()) {
-            Long sellerId = Long.parseLong(key.split("\\$")[0]);
-            String storeName = key.split("\\$")[1];
-            if(checkContainsSellerId.add(sellerId)) {
-                cartBySellerDtoList.add(
-                    new CartBySellerDto(sellerId, storeName, getItemList[sellerIdMap.get(key)]));
-            }
+    /**
+     * 판매자별로 묶은 장바구니. 상품은 최근에 담은 순서이고, 판매자는 그 판매자의 가장 최근 상품 순서이다.
+     * 장바구니 상품은 메모리에서, 상품과 판매자는 fetch join 쿼리 한 번으로 읽는다.
+     */
+    public CartResponseDto getCartItemGroupBySellerIdOrderByIdDesc(Long userId) {
+        Long cartId = cartStore.getCartId(userId);
+        List<CartItemDto> items = getCartItems(userId);
+
+        Map<Long, CartBySellerDto> groups = new LinkedHashMap<>();
+        for (CartItemDto item : items) {
+            ProductDto product = item.getProduct();
+            groups.computeIfAbsent(product.getSellerId(),
+                    sellerId -> new CartBySellerDto(sellerId, product.getStoreName(), new ArrayList<>()))
+                .getCartItemDtoList().add(item);
         }
-        
-        return new CartResponseDto(cart.getId(), cnt, cartBySellerDtoList);
+        return new CartResponseDto(cartId, (long) items.size(), new ArrayList<>(groups.values()));
+    }
+
+    /** 장바구니를 판매자별로 묶었을 때 할인 합계가 가장 큰 쿠폰 배정 */
+    public CouponAllocationResponseDto getCouponAllocation(Long userId) {
+        Map<Long, Long> totalFeeBySeller = new LinkedHashMap<>();
+        getCartItems(userId).forEach(item -> totalFeeBySeller.merge(item.getProduct().getSellerId(),
+            item.getProduct().getProductPrice() * item.getCount(), Long::sum));
+        return couponRecommendService.allocate(userId, totalFeeBySeller);
     }
 
 }
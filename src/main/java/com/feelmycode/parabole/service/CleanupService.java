@@ -0,0 +1,158 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.infra.CartStore;
+import com.feelmycode.parabole.repository.CartItemBulkRepository;
+import com.feelmycode.parabole.repository.OrderBulkRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 방치된 데이터 정리 작업.
+ * 결제하지 않은 채 cleanup.order.pending-hours 가 지난 주문(state = -1)은 주문 상품과 함께 지우고,
+ * cleanup.cart.retention-days 동안 바뀌지 않은 장바구니 상품은 지운다.
+ * 배치마다 별도 트랜잭션이며, 한 번 실행할 때 처리하는 배치 수에 상한이 있고 배치 사이에 cleanup.pause-ms 만큼 쉰다.
+ * 실행마다 지운 행 수를 테이블별 parabole.cleanup.removed 에, 걸린 시간을 작업별 parabole.cleanup.duration 에 기록한다.
+ */
+@Slf4j
+@Service
+public class CleanupService {
+
+    private final OrderBulkRepository orderBulkRepository;
+    private final CartItemBulkRepository cartItemBulkRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMs;
+    private final int pendingHours;
+    private final int cartRetentionDays;
+
+    public CleanupService(OrderBulkRepository orderBulkRepository,
+        CartItemBulkRepository cartItemBulkRepository,
+        CartStore cartStore,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${cleanup.batch-size:500}") int batchSize,
+        @Value("${cleanup.max-batches:20}") int maxBatches,
+        @Value("${cleanup.pause-ms:200}") long pauseMs,
+        @Value("${cleanup.order.pending-hours:24}") int pendingHours,
+        @Value("${cleanup.cart.retention-days:90}") int cartRetentionDays) {
+        this.orderBulkRepository = orderBulkRepository;
+        this.cartItemBulkRepository = cartItemBulkRepository;
+        this.cartStore = cartStore;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMs = pauseMs;
+        this.pendingHours = pendingHours;
+        this.cartRetentionDays = cartRetentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${cleanup.fixed-delay:600000}",
+        initialDelayString = "${cleanup.initial-delay:600000}")
+    public void sweep() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int[] removed = removePendingOrders();
+        record("orders", removed[0]);
+        record("order_infos", removed[1]);
+        sample.stop(duration("orders"));
+
+        sample = Timer.start(meterRegistry);
+        int cartItems = removeStaleCartItems();
+        record("cart_items", cartItems);
+        sample.stop(duration("cart_items"));
+
+        if (removed[0] > 0 || cartItems > 0) {
+            log.info("정리 작업 완료 주문 : {} / 주문 상품 : {} / 장바구니 상품 : {}", removed[0], removed[1], cartItems);
+        }
+    }
+
+    /** 오래된 결제 전 주문을 지우고 [주문 수, 주문 상품 수] 를 반환 */
+    public int[] removePendingOrders() {
+        int[] total = new int[2];
+        runBatches("orders", () -> {
+            LocalDateTime before = LocalDateTime.now().minusHours(pendingHours);
+            int[] count = transactionTemplate.execute(status -> {
+                List<Long> orderIds = orderBulkRepository.lockStalePendingIds(before, batchSize);
+                int infos = orderBulkRepository.deleteInfosByOrderIds(orderIds);
+                return new int[]{orderBulkRepository.deleteByIds(orderIds), infos};
+            });
+            total[0] += count[0];
+            total[1] += count[1];
+            return count[0];
+        });
+        return total;
+    }
+
+    /** 오래 바뀌지 않은 장바구니 상품을 지우고 지운 수를 반환 */
+    public int removeStaleCartItems() {
+        // 수정 시각이 없는 행은 지금부터 보관 기간을 센다.
+        runBatches("cart_items untracked", () -> cartItemBulkRepository.stampUntracked(LocalDateTime.now(), batchSize));
+
+        int[] total = new int[1];
+        runBatches("cart_items", () -> {
+            LocalDateTime before = LocalDateTime.now().minusDays(cartRetentionDays);
+            Integer count = transactionTemplate.execute(status -> {
+                List<long[]> rows = cartItemBulkRepository.lockStaleRows(before, batchSize);
+                List<Long> cartItemIds = new ArrayList<>(rows.size());
+                Set<Long> userIds = new HashSet<>();
+                for (long[] row : rows) {
+                    cartItemIds.add(row[0]);
+                    userIds.add(row[1]);
+                }
+                int deleted = cartItemBulkRepository.deleteByIds(cartItemIds);
+                // 메모리 장바구니에 남은 상품은 커밋된 뒤 다시 읽게 한다.
+                userIds.forEach(cartStore::evictAfterCommit);
+                return deleted;
+            });
+            total[0] += count;
+            return count;
+        });
+        return total[0];
+    }
+
+    /** batch 가 batchSize 보다 적게 처리하거나 maxBatches 번 돌 때까지 반복한다. 배치 사이에는 pauseMs 만큼 쉰다. */
+    private void runBatches(String job, IntSupplier batch) {
+        for (int i = 0; i < maxBatches; i++) {
+            if (batch.getAsInt() < batchSize) {
+                return;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.warn("정리 작업 배치 상한 도달, 다음 실행에 이어서 처리 : {}", job);
+    }
+
+    private void record(String table, int removed) {
+        DistributionSummary.builder("parabole.cleanup.removed")
+            .description("정리 작업 한 번에 지운 행 수")
+            .tag("table", table)
+            .register(meterRegistry)
+            .record(removed);
+    }
+
+    private Timer duration(String job) {
+        return Timer.builder("parabole.cleanup.duration")
+            .description("정리 작업 한 번에 걸린 시간")
+            .tag("job", job)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Coupon;
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import com.feelmycode.parabole.global.error.exception.NoDataException;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.util.CouponSerialApp;
+import com.feelmycode.parabole.repository.CouponRepository;
+import com.feelmycode.parabole.repository.UserCouponBulkRepository;
+import com.feelmycode.parabole.repository.UserCouponRepository;
+import com.feelmycode.parabole.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 쿠폰을 다수의 사용자에게 한 번에 배정한다.
+ * 사용자 검증, 쿠폰 확보, 배정을 모두 chunk 단위의 집합 연산으로 처리하며
+ * 수량이 모자라면 전체 배정을 롤백한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CouponAssignService {
+
+    private final CouponRepository couponRepository;
+    private final UserRepository userRepository;
+    private final UserCouponRepository userCouponRepository;
+    private final UserCouponBulkRepository userCouponBulkRepository;
+    private final int chunkSize;
+
+    public CouponAssignService(CouponRepository couponRepository,
+        UserRepository userRepository,
+        UserCouponRepository userCouponRepository,
+        UserCouponBulkRepository userCouponBulkRepository,
+        @Value("${coupon.assign.chunk-size:1000}") int chunkSize) {
+        this.couponRepository = couponRepository;
+        this.userRepository = userRepository;
+        this.userCouponRepository = userCouponRepository;
+        this.userCouponBulkRepository = userCouponBulkRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public int assign(Coupon coupon, List<Long> userIdList) {
+        // 같은 사용자가 여러 번 들어오면 들어온 횟수만큼 배정한다. 존재 확인만 중복 없이 한다.
+        List<Long> userIds = new ArrayList<>(userIdList);
+        validateUsers(new ArrayList<>(new LinkedHashSet<>(userIds)));
+
+        if (coupon.isVirtualStock()) {
+            assignVirtual(coupon, userIds);
+        } else {
+            assignMaterialized(coupon, userIds);
+        }
+        log.info("쿠폰 배정 완료 couponId : {} / 배정 수량 : {}", coupon.getId(), userIds.size());
+        return userIds.size();
+    }
+
+    private void validateUsers(List<Long> userIds) {
+        for (List<Long> chunk : chunks(userIds)) {
+            Set<Long> found = new HashSet<>(userRepository.findIdsByIdIn(chunk));
+            if (found.size() != chunk.size()) {
+                Long missing = chunk.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+                throw new NoDataException("존재하지 않는 사용자입니다. userId : " + missing);
+            }
+        }
+    }
+
+    private void assignVirtual(Coupon coupon, List<Long> userIds) {
+        if (couponRepository.claimVirtualStock(coupon.getId(), userIds.size()) == 0) {
+            throw notEnoughCoupon();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (List<Long> chunk : chunks(userIds)) {
+            List<String> serials = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                serials.add(CouponSerialApp.generator());
+            }
+            userCouponBulkRepository.insertAssigned(coupon.getId(), serials, chunk, now);
+        }
+    }
+
+    private void assignMaterialized(Coupon coupon, List<Long> userIds) {
+        long free = userCouponRepository.countByCouponIdAndUserIsNullAndUseState(coupon.getId(),
+            CouponUseState.NotUsed);
+        if (free < userIds.size()) {
+            throw notEnoughCoupon();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (List<Long> chunk : chunks(userIds)) {
+            List<Long> userCouponIds = userCouponBulkRepository.lockNotAssignedIds(coupon.getId(),
+                chunk.size());
+            // 동시에 진행 중인 다른 배정이 먼저 가져간 경우
+            if (userCouponIds.size() < chunk.size()) {
+                throw notEnoughCoupon();
+            }
+            if (userCouponBulkRepository.assignUsers(userCouponIds, chunk, now) != chunk.size()) {
+                throw notEnoughCoupon();
+            }
+        }
+        couponRepository.addAssignedCnt(coupon.getId(), userIds.size());
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private ParaboleException notEnoughCoupon() {
+        return new ParaboleException(HttpStatus.NOT_ACCEPTABLE, "사용자에게 배정할 쿠폰의 수량이 부족합니다.");
+    }
+}
@@ -0,0 +1,102 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.repository.CouponRepository;
+import com.feelmycode.parabole.repository.UserCouponBulkRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 쿠폰 만료 작업.
+ * 만료일이 지난 쿠폰의 미사용 UserCoupon 을 배치 단위로 Expired 상태로 바꾸고,
+ * 보관 기간이 지난 사용 완료/만료 행은 user_coupon_archives 로 옮겨 user_coupons 를 작게 유지한다.
+ * 배치마다 별도 트랜잭션이며 한 번 실행할 때 처리하는 배치 수에 상한이 있다.
+ */
+@Slf4j
+@Service
+public class CouponExpiryService {
+
+    private final UserCouponBulkRepository userCouponBulkRepository;
+    private final CouponRepository couponRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final boolean archiveEnabled;
+    private final int retentionDays;
+
+    public CouponExpiryService(UserCouponBulkRepository userCouponBulkRepository,
+        CouponRepository couponRepository,
+        TransactionTemplate transactionTemplate,
+        @Value("${coupon.expiry.batch-size:1000}") int batchSize,
+        @Value("${coupon.expiry.max-batches:50}") int maxBatches,
+        @Value("${coupon.expiry.archive.enabled:true}") boolean archiveEnabled,
+        @Value("${coupon.expiry.archive.retention-days:30}") int retentionDays) {
+        this.userCouponBulkRepository = userCouponBulkRepository;
+        this.couponRepository = couponRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.archiveEnabled = archiveEnabled;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.expiry.fixed-delay:60000}",
+        initialDelayString = "${coupon.expiry.initial-delay:60000}")
+    public void sweep() {
+        int expired = expireCoupons();
+        int archived = archiveEnabled ? archiveCoupons() : 0;
+        if (expired > 0 || archived > 0) {
+            log.info("쿠폰 만료 작업 완료 만료 : {} / 보관 이동 : {}", expired, archived);
+        }
+    }
+
+    public int expireCoupons() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer count = transactionTemplate.execute(status -> expireBatch(LocalDateTime.now()));
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public int archiveCoupons() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            LocalDateTime now = LocalDateTime.now();
+            Integer count = transactionTemplate.execute(status -> userCouponBulkRepository.archive(
+                userCouponBulkRepository.lockArchivableIds(now.minusDays(retentionDays), batchSize), now));
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        List<long[]> rows = userCouponBulkRepository.lockExpiredRows(now, batchSize);
+        List<Long> ids = new ArrayList<>(rows.size());
+        Map<Long, Integer> expiredByCoupon = new HashMap<>();
+        Map<Long, Integer> freeByCoupon = new HashMap<>();
+        for (long[] row : rows) {
+            ids.add(row[0]);
+            expiredByCoupon.merge(row[1], 1, Integer::sum);
+            freeByCoupon.merge(row[1], (int) row[2], Integer::sum);
+        }
+        // 잠근 행은 다른 트랜잭션이 바꿀 수 없으므로 잠근 수만큼 모두 만료된다.
+        int updated = userCouponBulkRepository.expire(ids, now);
+        expiredByCoupon.forEach((couponId, cnt) ->
+            couponRepository.addExpiredCnt(couponId, cnt, freeByCoupon.get(couponId)));
+        return updated;
+    }
+}
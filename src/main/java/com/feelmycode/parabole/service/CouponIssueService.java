@@ -0,0 +1,154 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Coupon;
+import com.feelmycode.parabole.domain.CouponIssueJob;
+import com.feelmycode.parabole.dto.CouponIssueJobResponseDto;
+import com.feelmycode.parabole.enumtype.CouponIssueState;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.util.CouponSerialApp;
+import com.feelmycode.parabole.repository.CouponIssueJobRepository;
+import com.feelmycode.parabole.repository.CouponRepository;
+import com.feelmycode.parabole.repository.UserCouponBulkRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 쿠폰 발행 시 UserCoupon 을 대량으로 만드는 발행 엔진.
+ * 발행 수량이 임계값 이하이면 요청 트랜잭션 안에서 바로 발행하고,
+ * 그보다 크면 쿠폰 등록 트랜잭션이 커밋된 뒤 별도 스레드에서 청크 단위로 발행한다.
+ *
+ * 청크마다 작업 행을 잠그고 발행 수량을 함께 커밋하므로, 프로세스가 도중에 죽어도 issuedCnt 는 실제로 넣은 행 수와 같다.
+ * coupon.issue.resume.stalled-minutes 동안 진행되지 않은 작업은 주기적으로 찾아 issuedCnt 부터 이어서 발행한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CouponIssueService {
+
+    private final CouponIssueJobRepository couponIssueJobRepository;
+    private final CouponRepository couponRepository;
+    private final UserCouponBulkRepository userCouponBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor couponIssueExecutor;
+    private final int chunkSize;
+    private final int asyncThreshold;
+    private final long stalledMinutes;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public CouponIssueService(CouponIssueJobRepository couponIssueJobRepository,
+        CouponRepository couponRepository,
+        UserCouponBulkRepository userCouponBulkRepository,
+        TransactionTemplate transactionTemplate,
+        @Qualifier("couponIssueExecutor") Executor couponIssueExecutor,
+        @Value("${coupon.issue.chunk-size:1000}") int chunkSize,
+        @Value("${coupon.issue.async-threshold:1000}") int asyncThreshold,
+        @Value("${coupon.issue.resume.stalled-minutes:5}") long stalledMinutes) {
+        this.couponIssueJobRepository = couponIssueJobRepository;
+        this.couponRepository = couponRepository;
+        this.userCouponBulkRepository = userCouponBulkRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.couponIssueExecutor = couponIssueExecutor;
+        this.chunkSize = chunkSize;
+        this.asyncThreshold = asyncThreshold;
+        this.stalledMinutes = stalledMinutes;
+    }
+
+    @Transactional
+    public CouponIssueJob startIssue(Coupon coupon) {
+        CouponIssueJob job = couponIssueJobRepository.save(
+            new CouponIssueJob(coupon.getId(), coupon.getCnt()));
+
+        if (job.getTotalCnt() <= asyncThreshold) {
+            while (!job.isFinished()) {
+                issueChunk(job);
+            }
+            return job;
+        }
+
+        Long jobId = job.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                couponIssueExecutor.execute(() -> runJob(jobId));
+            }
+        });
+        return job;
+    }
+
+    public CouponIssueJobResponseDto getJob(Long jobId) {
+        CouponIssueJob job = couponIssueJobRepository.findById(jobId).orElseThrow(
+            () -> new ParaboleException(HttpStatus.NOT_FOUND, "해당 Id로 조회되는 쿠폰 발행 작업이 없습니다."));
+        return new CouponIssueJobResponseDto(job);
+    }
+
+    /**
+     * 청크마다 별도 트랜잭션으로 커밋하여 진행률이 바로 조회되도록 한다.
+     * 같은 작업을 여러 곳에서 돌려도 작업 행 잠금으로 청크가 하나씩 진행되어 더 발행되지 않는다.
+     */
+    public void runJob(Long jobId) {
+        if (!running.add(jobId)) {
+            return;
+        }
+        log.info("쿠폰 발행 작업 시작 jobId : {}", jobId);
+        try {
+            boolean finished = false;
+            while (!finished) {
+                finished = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    CouponIssueJob job = couponIssueJobRepository.findForUpdate(jobId).orElse(null);
+                    if (job == null || job.isFinished()) {
+                        return true;
+                    }
+                    issueChunk(job);
+                    return job.isFinished();
+                }));
+            }
+            log.info("쿠폰 발행 작업 완료 jobId : {}", jobId);
+        } catch (Exception e) {
+            log.error("쿠폰 발행 작업 실패 jobId : {}", jobId, e);
+            transactionTemplate.executeWithoutResult(status ->
+                couponIssueJobRepository.findForUpdate(jobId).ifPresent(job -> job.fail(e.getMessage())));
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /** 프로세스가 죽거나 실행기에 넘기지 못해 멈춘 작업을 이어서 발행한다. 시작 직후에도 한 번 돈다. */
+    @Scheduled(fixedDelayString = "${coupon.issue.resume.fixed-delay:60000}",
+        initialDelayString = "${coupon.issue.resume.initial-delay:30000}")
+    public void resumeStalledJobs() {
+        List<Long> jobIds = couponIssueJobRepository.findStalledIds(
+            List.of(CouponIssueState.READY, CouponIssueState.IN_PROGRESS),
+            LocalDateTime.now().minusMinutes(stalledMinutes));
+        for (Long jobId : jobIds) {
+            if (!running.contains(jobId)) {
+                log.info("멈춘 쿠폰 발행 작업 재개 jobId : {}", jobId);
+                couponIssueExecutor.execute(() -> runJob(jobId));
+            }
+        }
+    }
+
+    private void issueChunk(CouponIssueJob job) {
+        int size = Math.min(chunkSize, job.getRemainCnt());
+        List<String> serials = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            serials.add(CouponSerialApp.generator());
+        }
+        userCouponBulkRepository.insertNotAssigned(job.getCouponId(), serials, LocalDateTime.now());
+        couponRepository.addIssuedCnt(job.getCouponId(), size);
+        job.issued(size);
+    }
+}
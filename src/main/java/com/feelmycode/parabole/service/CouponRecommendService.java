@@ -0,0 +1,162 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.dto.CouponAllocationDto;
+import com.feelmycode.parabole.dto.CouponAllocationResponseDto;
+import com.feelmycode.parabole.dto.CouponCandidateDto;
+import com.feelmycode.parabole.dto.CouponInfoDto;
+import com.feelmycode.parabole.dto.CouponRecommendResponseDto;
+import com.feelmycode.parabole.dto.CouponRequestDto;
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.util.CouponAllocationSolver;
+import com.feelmycode.parabole.repository.UserCouponRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 결제 화면의 쿠폰 추천.
+ * 사용 가능한 쿠폰만 한 번의 프로젝션 쿼리로 가져오고, 쿠폰마다 할인 금액을 한 번만 계산한 뒤
+ * 판매자별로 할인 금액이 큰 상위 k 장을 고른다.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CouponRecommendService {
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator
+        .comparingLong((Scored scored) -> scored.discount).reversed()
+        .thenComparing(scored -> scored.candidate.getSerialNo());
+
+    private final UserCouponRepository userCouponRepository;
+    private final int defaultLimit;
+
+    public CouponRecommendService(UserCouponRepository userCouponRepository,
+        @Value("${coupon.recommend.default-limit:5}") int defaultLimit) {
+        this.userCouponRepository = userCouponRepository;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /** 한 판매자에게 쓸 수 있는 쿠폰 전체를 할인 금액 순으로 반환 */
+    public List<CouponInfoDto> recommend(Long userId, Long sellerId, Integer totalFee) {
+        List<CouponRecommendResponseDto> result = recommend(userId,
+            List.of(new CouponRequestDto(sellerId, totalFee)), Integer.MAX_VALUE);
+        return result.get(0).getCouponList();
+    }
+
+    /** 장바구니의 판매자 그룹마다 상위 limit 장의 쿠폰을 한 번에 계산 */
+    public List<CouponRecommendResponseDto> recommend(Long userId, List<CouponRequestDto> sellerList, Integer limit) {
+        if (sellerList == null || sellerList.isEmpty()) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "쿠폰을 추천할 판매자 정보가 없습니다.");
+        }
+        int k = (limit == null || limit <= 0) ? defaultLimit : limit;
+
+        Set<Long> sellerIds = new LinkedHashSet<>();
+        for (CouponRequestDto dto : sellerList) {
+            if (dto.getSellerId() == null || dto.getTotalFee() == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "판매자 ID 와 주문 금액을 모두 입력해주세요.");
+            }
+            sellerIds.add(dto.getSellerId());
+        }
+
+        Map<Long, List<CouponCandidateDto>> candidatesBySeller = new HashMap<>();
+        for (CouponCandidateDto candidate : userCouponRepository.findCandidates(userId, sellerIds,
+            CouponUseState.NotUsed, LocalDateTime.now())) {
+            candidatesBySeller.computeIfAbsent(candidate.getSellerId(), id -> new ArrayList<>()).add(candidate);
+        }
+
+        List<CouponRecommendResponseDto> result = new ArrayList<>(sellerList.size());
+        for (CouponRequestDto dto : sellerList) {
+            List<CouponCandidateDto> candidates = candidatesBySeller.getOrDefault(dto.getSellerId(),
+                Collections.emptyList());
+            result.add(new CouponRecommendResponseDto(dto.getSellerId(), dto.getTotalFee(),
+                topK(candidates, dto.getTotalFee(), k)));
+        }
+        return result;
+    }
+
+    /**
+     * 판매자별 주문 금액(판매자 id -> 금액)마다 할인 금액이 가장 큰 쿠폰을 한 장씩 배정한다.
+     * 쿠폰은 판매자 전용이므로 그룹끼리 쿠폰이 겹치지 않는다.
+     */
+    public CouponAllocationResponseDto allocate(Long userId, Map<Long, Long> totalFeeBySeller) {
+        if (totalFeeBySeller.isEmpty()) {
+            return new CouponAllocationResponseDto(0L, Collections.emptyList());
+        }
+        List<Long> sellerIds = new ArrayList<>(totalFeeBySeller.keySet());
+        List<CouponCandidateDto> candidates = userCouponRepository.findCandidates(userId, sellerIds,
+            CouponUseState.NotUsed, LocalDateTime.now());
+
+        long[][] weights = new long[sellerIds.size()][candidates.size()];
+        for (int g = 0; g < sellerIds.size(); g++) {
+            Long sellerId = sellerIds.get(g);
+            for (int c = 0; c < candidates.size(); c++) {
+                CouponCandidateDto candidate = candidates.get(c);
+                if (candidate.getSellerId().equals(sellerId)) {
+                    weights[g][c] = candidate.discountFor(totalFeeBySeller.get(sellerId));
+                }
+            }
+        }
+
+        int[] assigned = CouponAllocationSolver.solve(weights);
+        long totalDiscount = 0;
+        List<CouponAllocationDto> allocationList = new ArrayList<>(sellerIds.size());
+        for (int g = 0; g < sellerIds.size(); g++) {
+            Long sellerId = sellerIds.get(g);
+            CouponInfoDto coupon = null;
+            if (assigned[g] != CouponAllocationSolver.NONE) {
+                long discount = weights[g][assigned[g]];
+                coupon = toInfo(candidates.get(assigned[g]), discount);
+                totalDiscount += discount;
+            }
+            allocationList.add(new CouponAllocationDto(sellerId, totalFeeBySeller.get(sellerId), coupon));
+        }
+        return new CouponAllocationResponseDto(totalDiscount, allocationList);
+    }
+
+    private List<CouponInfoDto> topK(List<CouponCandidateDto> candidates, long totalFee, int k) {
+        // 가장 나쁜 후보가 머리에 오는 크기 k 의 힙
+        PriorityQueue<Scored> heap = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (CouponCandidateDto candidate : candidates) {
+            heap.offer(new Scored(candidate, candidate.discountFor(totalFee)));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        List<Scored> best = new ArrayList<>(heap);
+        best.sort(BEST_FIRST);
+        List<CouponInfoDto> dtos = new ArrayList<>(best.size());
+        for (Scored scored : best) {
+            dtos.add(toInfo(scored.candidate, scored.discount));
+        }
+        return dtos;
+    }
+
+    private CouponInfoDto toInfo(CouponCandidateDto c, long discount) {
+        // CouponInfoDto 의 금액은 int 이다. 정확한 할인 합계는 배정 응답의 totalDiscount 로 준다.
+        return new CouponInfoDto(c.getCouponName(), c.getSerialNo(), c.getStoreName(),
+            c.getType().getName(), c.getDiscountValue(), (int) Math.min(discount, Integer.MAX_VALUE));
+    }
+
+    private static class Scored {
+
+        private final CouponCandidateDto candidate;
+        private final long discount;
+
+        private Scored(CouponCandidateDto candidate, long discount) {
+            this.candidate = candidate;
+            this.discount = discount;
+        }
+    }
+}
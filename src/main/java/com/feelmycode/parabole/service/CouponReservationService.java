@@ -0,0 +1,328 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Coupon;
+import com.feelmycode.parabole.domain.CouponReservation;
+import com.feelmycode.parabole.dto.CouponReservationResponseDto;
+import com.feelmycode.parabole.dto.CouponStockDto;
+import com.feelmycode.parabole.dto.StockAdjustItemDto;
+import com.feelmycode.parabole.dto.StockAdjustResultDto;
+import com.feelmycode.parabole.global.error.exception.NoDataException;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.repository.CouponBulkRepository;
+import com.feelmycode.parabole.repository.CouponRepository;
+import com.feelmycode.parabole.repository.CouponReservationRepository;
+import com.feelmycode.parabole.repository.UserCouponBulkRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 이벤트 경품용 쿠폰 수량 예약.
+ * 쿠폰 행을 잠근 상태에서 NotUsed -> EventEnrolled 를 한 번의 조건부 UPDATE 로 옮기고 실제로 옮긴 수를 돌려준다.
+ * (eventId, couponId) 마다 예약 내역을 남기므로 이벤트 서버가 같은 요청을 다시 보내도 한 번만 반영된다.
+ * VIRTUAL 쿠폰은 UserCoupon 행이 없으므로 쿠폰의 이벤트 등록 수량만 조건부 UPDATE 로 늘리고 줄인다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CouponReservationService {
+
+    private final CouponRepository couponRepository;
+    private final CouponBulkRepository couponBulkRepository;
+    private final CouponReservationRepository couponReservationRepository;
+    private final UserCouponBulkRepository userCouponBulkRepository;
+    private final CouponSerialService couponSerialService;
+    private final EntityManager entityManager;
+
+    @Transactional
+    public CouponReservationResponseDto reserve(Long eventId, Long couponId, int stock) {
+        if (stock <= 0) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "예약할 쿠폰의 수량은 1 이상이어야 합니다.");
+        }
+        // 같은 쿠폰에 대한 예약/취소는 쿠폰 행 잠금으로 줄을 세운다.
+        Long remains = lockAndGetRemains(couponId);
+        Coupon coupon = getCoupon(couponId);
+
+        CouponReservation reservation = couponReservationRepository.findForUpdate(eventId, couponId)
+            .orElseGet(() -> new CouponReservation(eventId, couponId));
+        if (reservation.isReserved()) {
+            log.info("이미 예약된 쿠폰 eventId : {} / couponId : {}", eventId, couponId);
+            return new CouponReservationResponseDto(reservation);
+        }
+
+        int reserved = enroll(coupon, stock, remains);
+        reservation.reserved(stock, reserved);
+        couponReservationRepository.save(reservation);
+        return new CouponReservationResponseDto(reservation);
+    }
+
+    /**
+     * 예약을 취소하고 잡아둔 수량을 되돌린다. 이미 취소된 예약이면 아무것도 하지 않는다.
+     * 예약 내역이 없는 이벤트(예약 내역 도입 이전에 만들어진 이벤트)는 legacyStock 만큼 되돌리고 취소 내역을 남긴다.
+     */
+    @Transactional
+    public CouponReservationResponseDto cancel(Long eventId, Long couponId, Integer legacyStock) {
+        lockAndGetRemains(couponId);
+        Coupon coupon = getCoupon(couponId);
+
+        CouponReservation reservation = couponReservationRepository.findForUpdate(eventId, couponId)
+            .orElse(null);
+        int released = 0;
+        if (reservation == null) {
+            reservation = new CouponReservation(eventId, couponId);
+            if (legacyStock != null && legacyStock > 0) {
+                released = release(coupon, legacyStock);
+            }
+        } else if (reservation.isReserved()) {
+            released = release(coupon, reservation.getReservedCnt());
+            reservation.cancel();
+        }
+        couponReservationRepository.save(reservation);
+        return new CouponReservationResponseDto(reservation, released);
+    }
+
+    /** 예약 내역 없이 수량만 잡는다. 실제로 잡은 수를 반환 */
+    @Transactional
+    public int reserveStock(Long couponId, int stock) {
+        Long remains = lockAndGetRemains(couponId);
+        return enroll(getCoupon(couponId), stock, remains);
+    }
+
+    /** 예약 내역 없이 수량만 되돌린다. 실제로 되돌린 수를 반환 */
+    @Transactional
+    public int releaseStock(Long couponId, int stock) {
+        lockAndGetRemains(couponId);
+        return release(getCoupon(couponId), stock);
+    }
+
+    /**
+     * 여러 쿠폰의 예약/취소와 수량 증감을 한 번에 처리한다. 결과는 items 와 같은 순서
+     * 쿠폰 행과 예약 내역을 한 번씩 잠그고 요청 순서대로 메모리에서 반영할 수량을 정한 뒤,
+     * 이벤트 등록 수량은 CASE UPDATE 한 번으로, MATERIALIZED 쿠폰의 행은 쿠폰마다 UPDATE 한 번으로 옮긴다.
+     * 한 항목이나 한 쿠폰의 반영이 실패해도 그 항목(쿠폰)만 실패로 돌려주고 나머지는 반영한다.
+     */
+    @Transactional
+    public List<StockAdjustResultDto> adjust(List<StockAdjustItemDto> items) {
+        Set<Long> couponIds = new TreeSet<>();
+        Set<Long> eventIds = new HashSet<>();
+        for (StockAdjustItemDto item : items) {
+            couponIds.add(item.getId());
+            if (item.getEventId() != null) {
+                eventIds.add(item.getEventId());
+            }
+        }
+        // 단건 처리와 같이 쿠폰 행을 먼저 잠그고 예약 내역을 잠근다.
+        Map<Long, CouponCounter> counters = new TreeMap<>();
+        for (CouponStockDto stock : couponBulkRepository.lockStocks(couponIds)) {
+            counters.put(stock.getCouponId(), new CouponCounter(stock));
+        }
+        Map<List<Long>, CouponReservation> reservations = new HashMap<>();
+        if (!eventIds.isEmpty()) {
+            for (CouponReservation reservation : couponReservationRepository.findAllForUpdate(eventIds, couponIds)) {
+                reservations.put(List.of(reservation.getEventId(), reservation.getCouponId()), reservation);
+            }
+        }
+
+        StockAdjustResultDto[] results = new StockAdjustResultDto[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            StockAdjustItemDto item = items.get(i);
+            CouponCounter counter = counters.get(item.getId());
+            if (counter == null) {
+                results[i] = StockAdjustResultDto.fail(item, "쿠폰이 존재하지 않습니다.");
+                continue;
+            }
+            if (item.getStock() == null || item.getStock() == 0) {
+                results[i] = StockAdjustResultDto.fail(item, "증감할 재고 수량이 올바르지 않습니다.");
+                continue;
+            }
+            try {
+                results[i] = plan(item, counter, reservations);
+                counter.indexes.add(i);
+            } catch (RuntimeException e) {
+                log.error("쿠폰 수량 증감 실패 couponId : {} / eventId : {}", item.getId(), item.getEventId(), e);
+                results[i] = StockAdjustResultDto.fail(item, "쿠폰 수량을 반영하지 못했습니다.");
+            }
+        }
+
+        Map<Long, Integer> enrolledDeltas = new TreeMap<>();
+        List<CouponReservation> created = new ArrayList<>();
+        counters.forEach((couponId, counter) -> {
+            if (counter.delta != 0 && !counter.virtualStock && !moveRows(couponId, counter.delta)) {
+                for (Integer i : counter.indexes) {
+                    results[i] = StockAdjustResultDto.fail(items.get(i), "쿠폰 수량을 반영하지 못했습니다.");
+                }
+                // 이미 바꾼 예약 내역은 DB 의 상태로 되돌린다.
+                counter.reservations.stream()
+                    .filter(reservation -> reservation.getId() != null)
+                    .forEach(entityManager::refresh);
+                return;
+            }
+            if (counter.delta != 0) {
+                enrolledDeltas.put(couponId, counter.delta);
+            }
+            counter.reservations.stream().filter(reservation -> reservation.getId() == null).forEach(created::add);
+        });
+        couponBulkRepository.addEnrolledCnts(enrolledDeltas);
+        couponReservationRepository.saveAll(created);
+        enrolledDeltas.keySet().stream()
+            .filter(couponId -> !counters.get(couponId).virtualStock)
+            .forEach(couponSerialService::evictCoupon);
+        return List.of(results);
+    }
+
+    /** 항목 하나를 쿠폰 카운터와 예약 내역에 반영하고 결과를 만든다. DB 에는 adjust 가 쿠폰마다 모아서 반영한다. */
+    private StockAdjustResultDto plan(StockAdjustItemDto item, CouponCounter counter,
+        Map<List<Long>, CouponReservation> reservations) {
+        List<Long> key = List.of(item.getEventId() == null ? 0L : item.getEventId(), item.getId());
+        if (item.getStock() < 0) {
+            int requested = item.getStock() * -1;
+            if (item.getEventId() == null) {
+                return StockAdjustResultDto.partial(item, -counter.enroll(requested));
+            }
+            CouponReservation reservation = reservations.computeIfAbsent(key,
+                k -> new CouponReservation(item.getEventId(), item.getId()));
+            if (reservation.isReserved()) {
+                log.info("이미 예약된 쿠폰 eventId : {} / couponId : {}", item.getEventId(), item.getId());
+                return StockAdjustResultDto.partial(item, -reservation.getReservedCnt());
+            }
+            reservation.reserved(requested, counter.enroll(requested));
+            counter.reservations.add(reservation);
+            return StockAdjustResultDto.partial(item, -reservation.getReservedCnt());
+        }
+        if (item.getEventId() == null) {
+            return StockAdjustResultDto.partial(item, counter.release(item.getStock()));
+        }
+        // 예약 내역이 없는 이벤트(예약 내역 도입 이전에 만들어진 이벤트)는 요청 수량만큼 되돌린다. 이미 취소된 예약이면 0 이다.
+        CouponReservation reservation = reservations.get(key);
+        int released = 0;
+        if (reservation == null) {
+            reservation = new CouponReservation(item.getEventId(), item.getId());
+            reservations.put(key, reservation);
+            released = counter.release(item.getStock());
+        } else if (reservation.isReserved()) {
+            released = counter.release(reservation.getReservedCnt());
+            reservation.cancel();
+        }
+        counter.reservations.add(reservation);
+        return StockAdjustResultDto.partial(item, released);
+    }
+
+    /**
+     * MATERIALIZED 쿠폰의 행을 delta 만큼 NotUsed 와 EventEnrolled 사이에서 옮긴다.
+     * 카운터와 실제 행 수가 맞지 않으면 옮긴 행을 되돌리고, 실패하면 false
+     */
+    private boolean moveRows(Long couponId, int delta) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int moved = delta > 0
+                ? userCouponBulkRepository.enrollForEvent(couponId, delta, now)
+                : userCouponBulkRepository.releaseFromEvent(couponId, -delta, now);
+            if (moved == Math.abs(delta)) {
+                return true;
+            }
+            log.error("쿠폰 카운터와 행 수가 맞지 않습니다. couponId : {} / 옮길 수량 : {} / 옮긴 수량 : {}",
+                couponId, Math.abs(delta), moved);
+            if (delta > 0) {
+                userCouponBulkRepository.releaseFromEvent(couponId, moved, now);
+            } else {
+                userCouponBulkRepository.enrollForEvent(couponId, moved, now);
+            }
+        } catch (DataAccessException e) {
+            log.error("쿠폰 행 이동 실패 couponId : {} / 옮길 수량 : {}", couponId, delta, e);
+        }
+        return false;
+    }
+
+    private int enroll(Coupon coupon, int stock, long remains) {
+        if (coupon.isVirtualStock()) {
+            int reserved = (int) Math.max(0, Math.min(stock, remains));
+            if (reserved == 0 || couponRepository.increaseEnrolledCnt(coupon.getId(), reserved) == 0) {
+                return 0;
+            }
+            return reserved;
+        }
+        int reserved = userCouponBulkRepository.enrollForEvent(coupon.getId(), stock, LocalDateTime.now());
+        couponRepository.addEnrolledCnt(coupon.getId(), reserved);
+        if (reserved > 0) {
+            couponSerialService.evictCoupon(coupon.getId());
+        }
+        return reserved;
+    }
+
+    private int release(Coupon coupon, int stock) {
+        if (coupon.isVirtualStock()) {
+            int released = (int) Math.min(stock, couponRepository.lockAndGetEnrolledCnt(coupon.getId()));
+            if (released == 0 || couponRepository.decreaseEnrolledCnt(coupon.getId(), released) == 0) {
+                return 0;
+            }
+            return released;
+        }
+        int released = userCouponBulkRepository.releaseFromEvent(coupon.getId(), stock, LocalDateTime.now());
+        couponRepository.addEnrolledCnt(coupon.getId(), -released);
+        if (released > 0) {
+            couponSerialService.evictCoupon(coupon.getId());
+        }
+        return released;
+    }
+
+    /** 잠근 쿠폰 행의 수량을 메모리에서 증감하고, 항목과 예약 내역을 쿠폰별로 모은다. */
+    private static class CouponCounter {
+
+        private final boolean virtualStock;
+        private long remains;
+        private long enrolled;
+        private int delta;          // 이벤트 등록 수량의 순증감
+        private final List<Integer> indexes = new ArrayList<>();
+        private final Set<CouponReservation> reservations = new HashSet<>();
+
+        private CouponCounter(CouponStockDto stock) {
+            this.virtualStock = stock.isVirtualStock();
+            this.remains = stock.getRemains();
+            this.enrolled = stock.getEnrolledCnt();
+        }
+
+        /** 남은 수량 안에서 최대 cnt 개를 이벤트 등록 수량으로 옮긴다. 옮긴 수를 반환 */
+        private int enroll(int cnt) {
+            int moved = (int) Math.max(0, Math.min(cnt, remains));
+            remains -= moved;
+            enrolled += moved;
+            delta += moved;
+            return moved;
+        }
+
+        /** 이벤트 등록 수량 안에서 최대 cnt 개를 되돌린다. 되돌린 수를 반환 */
+        private int release(int cnt) {
+            int moved = (int) Math.max(0, Math.min(cnt, enrolled));
+            enrolled -= moved;
+            remains += moved;
+            delta -= moved;
+            return moved;
+        }
+    }
+
+    private Coupon getCoupon(Long couponId) {
+        return couponRepository.findById(couponId).orElseThrow(() -> new NoDataException());
+    }
+
+    private Long lockAndGetRemains(Long couponId) {
+        Long remains = couponRepository.lockAndGetRemains(couponId);
+        if (remains == null) {
+            throw new NoDataException();
+        }
+        return remains;
+    }
+}
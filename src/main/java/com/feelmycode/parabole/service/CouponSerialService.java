@@ -0,0 +1,99 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.UserCoupon;
+import com.feelmycode.parabole.dto.UserCouponSerialDto;
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.util.CouponSerialApp;
+import com.feelmycode.parabole.repository.UserCouponRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 쿠폰 일련번호 조회.
+ * 형식과 검증 문자가 맞지 않는 일련번호는 DB 조회 없이 거절하고,
+ * 일련번호 -> (userCouponId, couponId, 상태) 를 크기가 제한된 캐시에 둔다.
+ * 캐시는 트랜잭션이 커밋된 뒤에만 바꾼다. 롤백된 발급이나 상태 변경이 캐시에 남지 않게 하기 위함
+ *
+ * 일련번호의 노드 번호(coupon.serial.node-id)는 인스턴스마다 다르게 직접 지정해야 한다.
+ * 같은 번호를 쓰는 인스턴스가 같은 밀리초에 발급하면 일련번호가 겹친다.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CouponSerialService {
+
+    private final UserCouponRepository userCouponRepository;
+    private final Cache<String, UserCouponSerialDto> serialCache;
+
+    public CouponSerialService(UserCouponRepository userCouponRepository,
+        @Value("${coupon.serial.node-id}") long nodeId,
+        @Value("${coupon.serial.cache.maximum-size:100000}") long maximumSize,
+        @Value("${coupon.serial.cache.expire-minutes:10}") long expireMinutes) {
+        this.userCouponRepository = userCouponRepository;
+        this.serialCache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+            .build();
+        CouponSerialApp.setNodeId(nodeId);
+    }
+
+    /** 일련번호에 해당하는 쿠폰이 없으면 null */
+    public UserCouponSerialDto findBySerialNo(String serialNo) {
+        String normalized = CouponSerialApp.normalize(serialNo);
+        if (normalized == null) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "올바르지 않은 쿠폰 일련번호입니다.");
+        }
+        UserCouponSerialDto cached = serialCache.getIfPresent(normalized);
+        if (cached != null) {
+            return cached;
+        }
+        // 없는 일련번호는 캐시하지 않는다. 이후에 발급될 수 있기 때문
+        UserCouponSerialDto found = userCouponRepository.findSerialDtoBySerialNo(normalized).orElse(null);
+        if (found != null) {
+            afterCommit(() -> serialCache.put(normalized, found));
+        }
+        return found;
+    }
+
+    /** 일련번호로 UserCoupon 을 읽는다. 캐시에 있으면 PK 로 바로 찾는다. */
+    public UserCoupon getUserCoupon(String serialNo) {
+        UserCouponSerialDto dto = findBySerialNo(serialNo);
+        if (dto == null) {
+            return null;
+        }
+        return userCouponRepository.findById(dto.getUserCouponId()).orElse(null);
+    }
+
+    /** UserCoupon 의 상태가 바뀌면 캐시에 들어있는 상태도 맞춘다. */
+    public void changeState(String serialNo, CouponUseState useState) {
+        afterCommit(() -> serialCache.asMap().computeIfPresent(serialNo, (key, dto) -> dto.withUseState(useState)));
+    }
+
+    /**
+     * 이벤트 등록/취소처럼 한 번의 UPDATE 로 여러 UserCoupon 의 상태를 바꾼 뒤 호출한다.
+     * 어떤 일련번호가 바뀌었는지 모르므로 그 쿠폰의 캐시를 모두 버린다.
+     */
+    public void evictCoupon(Long couponId) {
+        afterCommit(() -> serialCache.asMap().values().removeIf(dto -> couponId.equals(dto.getCouponId())));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
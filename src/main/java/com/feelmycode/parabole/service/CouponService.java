@@ -1,9 +1,11 @@
 package com.feelmycode.parabole.service;
 
 import com.feelmycode.parabole.domain.Coupon;
+import com.feelmycode.parabole.domain.CouponIssueJob;
 import com.feelmycode.parabole.domain.Seller;
 import com.feelmycode.parabole.domain.User;
 import com.feelmycode.parabole.domain.UserCoupon;
+import com.feelmycode.parabole.dto.CouponAssignRequestDto;
 import com.feelmycode.parabole.dto.CouponCreateRequestDto;
 import com.feelmycode.parabole.dto.CouponCreateResponseDto;
 import com.feelmycode.parabole.dto.CouponInfoDto;
@@ -12,11 +14,15 @@ import com.feelmycode.parabole.dto.CouponRequestDto;
 import com.feelmycode.parabole.dto.CouponSellerResponseDto;
 import com.feelmycode.parabole.dto.CouponUserResponseDto;
 import com.feelmycode.parabole.dto.CouponWithSellerStoreDto;
+import com.feelmycode.parabole.dto.UserCouponSerialDto;
+import com.feelmycode.parabole.enumtype.CouponRedeemResult;
+import com.feelmycode.parabole.enumtype.CouponStockMode;
 import com.feelmycode.parabole.enumtype.CouponType;
 import com.feelmycode.parabole.enumtype.CouponUseState;
 import com.feelmycode.parabole.global.error.exception.NoDataException;
 import com.feelmycode.parabole.global.error.exception.NotSellerException;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.util.CouponSerialApp;
 import com.feelmycode.parabole.repository.CouponRepository;
 import com.feelmycode.parabole.repository.SellerRepository;
 import com.feelmycode.parabole.repository.UserCouponRepository;
@@ -24,8 +30,6 @@ import com.feelmycode.parabole.repository.UserRepository;
 import com.sun.istack.NotNull;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +38,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
@@ -46,6 +51,11 @@ public class CouponService {
     private final UserRepository userRepository;
     private final CouponRepository couponRepository;
     private final UserCouponRepository userCouponRepository;
+    private final CouponIssueService couponIssueService;
+    private final CouponAssignService couponAssignService;
+    private final CouponSerialService couponSerialService;
+    private final CouponRecommendService couponRecommendService;
+    private final CouponReservationService couponReservationService;
 
     @Transactional
     public CouponCreateResponseDto addCoupon(Long sellerId, @NotNull CouponCreateRequestDto dto) {
@@ -53,14 +63,19 @@ public class CouponService {
         Seller seller = sellerRepository.findById(sellerId).orElseThrow(() -> new NotSellerException());
 
         Coupon coupon = new Coupon(dto.getName(), seller, CouponType.returnNameToValue(dto.getType()), dto.getDiscountValue(), dto.getValidAt(),
-            dto.getExpiresAt(), dto.getDetail(), dto.getCnt());
+            dto.getExpiresAt(), dto.getDetail(), dto.getCnt(), CouponStockMode.returnNameToValue(dto.getStockMode()));
 
         couponRepository.save(coupon);
 
-        for (int i = 0; i < dto.getCnt(); i++) {
-            coupon.addUserCoupon(new UserCoupon(coupon));
+        // VIRTUAL 모드는 배정 시점에 UserCoupon 을 생성하므로 발행 작업이 없다.
+        if (coupon.isVirtualStock()) {
+            return new CouponCreateResponseDto(coupon.getId(), coupon.getName(), seller.getStoreName(), coupon.getType().getName(), coupon.getCnt(),
+                null, null);
         }
-        return new CouponCreateResponseDto(coupon.getId(), coupon.getName(), seller.getStoreName(), coupon.getType().getName(), coupon.getCnt());
+
+        CouponIssueJob issueJob = couponIssueService.startIssue(coupon);
+        return new CouponCreateResponseDto(coupon.getId(), coupon.getName(), seller.getStoreName(), coupon.getType().getName(), coupon.getCnt(),
+            issueJob.getId(), issueJob.getState().getState());
     }
 
 //    public void giveoutUserCoupon(String couponSNo, Long userId) {
@@ -75,19 +90,35 @@ public class CouponService {
 //    }
 
     @Transactional
-    public Boolean setCouponStock(Long couponId, Integer stock) {
-        Coupon getCoupon = this.getCouponById(couponId);
+    public void assignCoupon(CouponAssignRequestDto dto) {
+        Coupon coupon = getCouponById(dto.getCouponId());
+        couponAssignService.assign(coupon, dto.getUserIdList());
+    }
+
+    /**
+     * 이벤트 서버의 쿠폰 수량 조정. stock 이 음수면 그만큼 예약하고 양수면 되돌린다.
+     * eventId 가 있으면 (eventId, couponId) 단위로 한 번만 반영된다.
+     * 예약/취소는 각자의 트랜잭션에서 처리되므로 실패해도 이 메서드가 롤백 전용 트랜잭션을 커밋하려 하지 않는다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Boolean setCouponStock(Long couponId, Integer stock, Long eventId) {
         try {
             if (stock < 0) {
-                getCoupon.setCouponForEvent(stock * -1);
-            } else {
-                getCoupon.cancelCouponEvent(stock);
+                int requested = stock * -1;
+                if (eventId != null) {
+                    return couponReservationService.reserve(eventId, couponId, requested).getReservedCnt() == requested;
+                }
+                return couponReservationService.reserveStock(couponId, requested) == requested;
+            }
+            if (eventId != null) {
+                couponReservationService.cancel(eventId, couponId, stock);
+                return true;
             }
-            couponRepository.save(getCoupon);
+            return couponReservationService.releaseStock(couponId, stock) == stock;
         } catch (Exception e) {
             log.error(e.getMessage());
         }
-        return true;
+        return false;
     }
 
     public Coupon getCouponById(Long couponId) {
@@ -121,12 +152,9 @@ public class CouponService {
 
     public Page<CouponUserResponseDto> getUserCouponList(Long userId) {
 
-        List<UserCoupon> couponListAll = userCouponRepository.findAllByUserId(userId);
-        List<UserCoupon> validList = couponListAll.stream()
-            .filter(userCoupon -> userCoupon.getUseState().equals(CouponUseState.NotUsed)
-                && userCoupon.getCoupon().getValidAt().isBefore(LocalDateTime.now())
-                && userCoupon.getCoupon().getExpiresAt().isAfter(LocalDateTime.now()))
-            .collect(Collectors.toList());
+        // 만료된 쿠폰은 만료 작업이 Expired 로 바꿔두므로 조건은 DB 에서 한 번에 거른다.
+        List<UserCoupon> validList = userCouponRepository.findUsableByUserId(userId, CouponUseState.NotUsed,
+            LocalDateTime.now());
 
         List<CouponUserResponseDto> dtos = new ArrayList<>();
 
@@ -142,7 +170,7 @@ public class CouponService {
     }
 
     public UserCoupon getUserCouponBySerialNo(String serialNo) {
-        return userCouponRepository.findBySerialNo(serialNo);
+        return couponSerialService.getUserCoupon(serialNo);
     }
 
     public List<UserCoupon> getUserCouponByCouponId(Long couponId) {
@@ -152,41 +180,17 @@ public class CouponService {
 
     public CouponInfoResponseDto getCouponInfo(String couponSNo) {
 
-        UserCoupon userCoupon = userCouponRepository.findBySerialNo(couponSNo);
-        if (userCoupon == null) {
+        UserCouponSerialDto serial = couponSerialService.findBySerialNo(couponSNo);
+        if (serial == null) {
             throw new NoDataException();
         }
-        Coupon coupon = userCoupon.getCoupon();
+        Coupon coupon = getCouponById(serial.getCouponId());
         return new CouponInfoResponseDto(coupon.getType().getName(), coupon.getDiscountValue());
     }
 
     public List<CouponInfoDto> getCouponListByDiscountValue(Long userId, CouponRequestDto couponRequestDto) {
-
-        Long sellerId = couponRequestDto.getSellerId();
-        Integer totalFee = couponRequestDto.getTotalFee();
-
-        List<UserCoupon> couponList = userCouponRepository.findAllByUserId(userId);
-
-        List<UserCoupon> getCouponListBySellerId = couponList.stream()
-            .filter(coupon -> coupon.getCoupon().getSeller().getId() == sellerId)
-            .filter(coupon -> coupon.getUseState() == CouponUseState.NotUsed)
-            .collect(Collectors.toList());
-
-        Collections.sort(getCouponListBySellerId, new Comparator<UserCoupon>() {
-            @Override
-            public int compare(UserCoupon coupon1, UserCoupon coupon2) {
-                Integer discountO1 = discountValue(coupon1, totalFee);
-                Integer discountO2 = discountValue(coupon2, totalFee);
-                return -Long.compare(discountO1, discountO2);
-            }
-        });
-
-        List<CouponInfoDto> couponListDto = getCouponListBySellerId.stream()
-            .map(coupon -> new CouponInfoDto(coupon.getCoupon().getName(), coupon.getSerialNo(),
-                coupon.getCoupon().getSeller().getStoreName(), coupon.getCoupon().getType().getName(), coupon.getCoupon().getDiscountValue(), discountValue(coupon, totalFee)))
-            .collect(Collectors.toList());
-
-        return couponListDto;
+        return couponRecommendService.recommend(userId, couponRequestDto.getSellerId(),
+            couponRequestDto.getTotalFee());
     }
 
     public List<String> getCouponListByStoreName(String storeName) {
@@ -218,29 +222,47 @@ public class CouponService {
 
     @Transactional
     public void useUserCoupon(String couponSNo, Long userId) {
-        UserCoupon userCoupon = userCouponRepository.findBySerialNo(couponSNo);
+        CouponRedeemResult result = redeemUserCoupon(couponSNo, userId);
+        if (!result.isSuccess()) {
+            throw new ParaboleException(result.getStatus(), result.getMessage());
+        }
+    }
+
+    /**
+     * 쿠폰을 사용 처리한다. 성공하면 UPDATE 한 번으로 끝나고,
+     * 실패했을 때만 쿠폰을 다시 읽어 실패 사유를 돌려준다.
+     */
+    @Transactional
+    public CouponRedeemResult redeemUserCoupon(String couponSNo, Long userId) {
+        String serialNo = CouponSerialApp.normalize(couponSNo);
+        if (serialNo == null) {
+            return CouponRedeemResult.NOT_FOUND;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (userCouponRepository.redeem(serialNo, userId, now) > 0) {
+            couponSerialService.changeState(serialNo, CouponUseState.Used);
+            return CouponRedeemResult.SUCCESS;
+        }
+        return diagnoseRedeemFailure(serialNo, userId, now);
+    }
+
+    private CouponRedeemResult diagnoseRedeemFailure(String serialNo, Long userId, LocalDateTime now) {
+        UserCoupon userCoupon = couponSerialService.getUserCoupon(serialNo);
         if (userCoupon == null) {
-            throw new ParaboleException(HttpStatus.NOT_FOUND,
-                "해당 일련번호를 가지는 쿠폰이 존재하지 않습니다.");
+            return CouponRedeemResult.NOT_FOUND;
         }
         User user = userCoupon.getUser();
-
         if (user == null) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST,
-                "쿠폰에 배정된 사용자가 없습니다. 사용자를 먼저 배정하세요.");
+            return CouponRedeemResult.NOT_ASSIGNED;
         } else if (!user.getId().equals(userId)) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST,
-                "사용자의 쿠폰이 아닙니다. 타인의 쿠폰입니다.");
-        } else if (userCoupon.getCoupon().getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new ParaboleException(HttpStatus.BAD_REQUEST,
-                "쿠폰이 만료되어 사용할 수 없습니다.");
-        } else {
-            if (userCoupon.getUseState() == CouponUseState.Used) {
-                throw new ParaboleException(HttpStatus.BAD_REQUEST, "이미 사용완료된 쿠폰입니다.");
-            }
+            return CouponRedeemResult.NOT_OWNER;
+        } else if (userCoupon.getUseState() == CouponUseState.Used) {
+            return CouponRedeemResult.ALREADY_USED;
+        } else if (!userCoupon.getCoupon().getExpiresAt().isAfter(now)
+            || userCoupon.getUseState() == CouponUseState.Expired) {
+            return CouponRedeemResult.EXPIRED;
         }
-        userCoupon.useCoupon();
-        userCouponRepository.save(userCoupon);
+        return CouponRedeemResult.NOT_USABLE;
     }
 
 }
@@ -41,6 +41,10 @@ public class EventService {
 
     private final SellerService sellerService;
 
+    private final CouponReservationService couponReservationService;
+
+    private final ProductStockService productStockService;
+
     private Seller getSeller(Long userId) {
         return sellerService.getSellerByUserId(userId);
     }
@@ -85,7 +89,7 @@ public class EventService {
                             () -> new ParaboleException(HttpStatus.NOT_FOUND, "해당하는 상품이 없습니다")
                         );
 
-                    product.removeRemains(Long.valueOf(eventPrizeParam.getStock()));
+                    productStockService.decrease(product.getId(), Long.valueOf(eventPrizeParam.getStock()));
                     eventPrizeList.add(
                         new EventPrize(prizeType, eventPrizeParam.getStock(), getProduct(id)));
                 } else {
@@ -94,7 +98,6 @@ public class EventService {
                     );
                     eventPrizeList.add(
                         new EventPrize(prizeType, eventPrizeParam.getStock(), getCoupon(id)));
-                    coupon.setCouponForEvent(eventPrizeParam.getStock());
                 }
             }
         }
@@ -109,6 +112,18 @@ public class EventService {
 
         // 이벤트 저장
         eventRepository.save(event);
+
+        // 경품 쿠폰 예약. 이벤트 ID 가 있어야 하므로 저장 뒤에 한다.
+        for (EventPrize eventPrize : eventPrizeList) {
+            if (eventPrize.getPrizeType().equals(PrizeType.PRODUCT.getCode())) {
+                continue;
+            }
+            int reserved = couponReservationService.reserve(event.getId(), eventPrize.getCoupon().getId(),
+                eventPrize.getStock()).getReservedCnt();
+            if (reserved < eventPrize.getStock()) {
+                throw new ParaboleException(HttpStatus.NOT_ACCEPTABLE, "이벤트에 등록할 쿠폰의 수량이 부족합니다.");
+            }
+        }
         return event.getId();
     }
 
@@ -225,7 +240,7 @@ public class EventService {
                     Product product = productRepository.findById(eventPrize.getProduct().getId())
                         .orElseThrow(() -> new ParaboleException(HttpStatus.NOT_FOUND,
                             "취소하려는 이벤트의 경품 정보가 없습니다"));
-                    product.addRemains(Long.valueOf(eventPrize.getStock()));
+                    productStockService.increase(product.getId(), Long.valueOf(eventPrize.getStock()));
                 } else {
                     log.info("취소하려는 이벤트의 쿠폰 정보가 없습니다");
                     Coupon coupon = couponRepository.findById(eventPrize.getCoupon().getId())
@@ -233,7 +248,7 @@ public class EventService {
                             () -> new ParaboleException(HttpStatus.NOT_FOUND,
                                 "취소하려는 이벤트 경품 쿠폰 정보가 없습니다.")
                         );
-                    coupon.cancelCouponEvent(eventPrize.getStock());
+                    couponReservationService.cancel(eventId, coupon.getId(), eventPrize.getStock());
 
                 }
             }
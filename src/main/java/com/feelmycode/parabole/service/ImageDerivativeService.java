@@ -0,0 +1,206 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.dto.ProductImageDto;
+import com.feelmycode.parabole.enumtype.ImageSize;
+import com.feelmycode.parabole.infra.ImageStorage;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 업로드한 이미지의 크기별 축소본(ImageSize)을 백그라운드에서 만든다.
+ * 축소본 key 는 원본 key 로 정해지고 이미 있는 축소본은 건너뛰므로, 같은 이미지로 여러 번 실행해도 결과가 같다.
+ * 저장소 오류는 max-attempts 번까지 간격을 늘려가며 다시 시도한다.
+ *
+ * 결과는 상품 이미지 행에 기록하고(만듦 / 만들 수 없음), 화면에는 기록된 축소본만 내려준다.
+ * 대기열이 차서 버려졌거나 재시도 끝에 실패했거나 서버가 재시작되어 결과가 기록되지 않은 이미지,
+ * 그리고 축소본이 도입되기 전에 올라온 이미지는 주기적인 backfill 이 찾아 다시 만든다.
+ * backfill 은 지난번에 멈춘 id 다음부터 찾으므로 계속 실패하는 이미지가 앞쪽에 있어도 뒤의 이미지가 밀리지 않는다.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private final ImageStorage imageStorage;
+    private final Executor imageDerivativeExecutor;
+    private final ProductBulkRepository productBulkRepository;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final int backfillBatchSize;
+
+    // 대기열에 들어가 있거나 만드는 중인 이미지. backfill 이 같은 이미지를 다시 넣지 않게 한다.
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    // backfill 이 다음에 이어서 찾을 위치. 끝까지 찾으면 처음(0)부터 다시 찾는다.
+    private long thumbnailCursor;
+    private long detailCursor;
+
+    public ImageDerivativeService(ImageStorage imageStorage,
+        @Qualifier("imageDerivativeExecutor") Executor imageDerivativeExecutor,
+        ProductBulkRepository productBulkRepository,
+        @Value("${image.derivative.max-attempts:3}") int maxAttempts,
+        @Value("${image.derivative.retry-delay-ms:500}") long retryDelayMs,
+        @Value("${image.derivative.backfill.batch-size:200}") int backfillBatchSize) {
+        this.imageStorage = imageStorage;
+        this.imageDerivativeExecutor = imageDerivativeExecutor;
+        this.productBulkRepository = productBulkRepository;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /** 상품에 올린 이미지들의 축소본을 백그라운드에서 만들고 결과를 기록한다. */
+    public void generateAsync(Long productId, Collection<String> urls) {
+        for (String url : urls) {
+            submit(productId, url);
+        }
+    }
+
+    /** 축소본 상태가 기록되지 않은 썸네일과 상세 이미지를 batch-size 장씩 찾아 대기열에 넣는다. */
+    @Scheduled(fixedDelayString = "${image.derivative.backfill.fixed-delay:600000}",
+        initialDelayString = "${image.derivative.backfill.initial-delay:60000}")
+    public synchronized void backfill() {
+        thumbnailCursor = submitAll(productBulkRepository.findUnderivedThumbnails(thumbnailCursor, backfillBatchSize));
+        detailCursor = submitAll(productBulkRepository.findUnderivedDetailImages(detailCursor, backfillBatchSize));
+    }
+
+    /** 축소본을 만들고 결과를 기록한다. 저장소 오류로 끝내 만들지 못하면 기록하지 않아 다음 backfill 에서 다시 시도한다. */
+    public void derive(Long productId, String url) {
+        String key = imageStorage.keyOf(url);
+        Boolean derived;
+        try {
+            // 기본 이미지나 다른 곳의 URL, 지워진 원본은 축소본을 만들 수 없다.
+            derived = key == null || !imageStorage.exists(key) ? Boolean.FALSE : attempt(key);
+        } catch (RuntimeException e) {
+            log.warn("축소본 생성 실패 url : {} / {}", url, e.getMessage());
+            return;
+        }
+        if (derived != null) {
+            productBulkRepository.markDerived(productId, url, derived);
+        }
+    }
+
+    /** 이미지를 대기열에 넣고 다음 backfill 이 이어서 찾을 위치를 반환한다. batch-size 보다 적게 찾았으면 끝까지 찾은 것이다. */
+    private long submitAll(List<ProductImageDto> images) {
+        images.forEach(image -> submit(image.getProductId(), image.getUrl()));
+        return images.size() < backfillBatchSize ? 0 : images.get(images.size() - 1).getId();
+    }
+
+    private void submit(Long productId, String url) {
+        String task = productId + " " + url;
+        if (!queued.add(task)) {
+            return;
+        }
+        try {
+            imageDerivativeExecutor.execute(() -> {
+                try {
+                    derive(productId, url);
+                } finally {
+                    queued.remove(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(task);
+            log.warn("축소본 생성 대기열이 가득 차서 다음 backfill 로 미룸 url : {}", url);
+        }
+    }
+
+    /** 모두 만들었으면 true, 이미지가 아니면 false, 재시도 끝에 실패하면 null */
+    private Boolean attempt(String key) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                generate(key);
+                return true;
+            } catch (IllegalArgumentException e) {
+                // 이미지가 아닌 파일은 다시 시도해도 같다.
+                log.warn("축소본을 만들 수 없는 파일 key : {} / {}", key, e.getMessage());
+                return false;
+            } catch (IOException | RuntimeException e) {
+                log.warn("축소본 생성 실패 ({}/{}) key : {} / {}", attempt, maxAttempts, key, e.getMessage());
+                if (attempt < maxAttempts && !sleep(retryDelayMs * attempt)) {
+                    return null;
+                }
+            }
+        }
+        log.error("축소본 생성 재시도 횟수 초과 key : {}", key);
+        return null;
+    }
+
+    /** 없는 축소본만 만든다. 원본은 필요할 때 한 번만 읽는다. */
+    private void generate(String key) throws IOException {
+        BufferedImage original = null;
+        for (ImageSize size : ImageSize.values()) {
+            String derivedKey = size.derive(key);
+            if (derivedKey.equals(key) || imageStorage.exists(derivedKey)) {
+                continue;
+            }
+            if (original == null) {
+                original = read(key);
+            }
+            byte[] bytes = toJpeg(resize(original, size.getWidth()));
+            imageStorage.store(derivedKey, new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+        }
+    }
+
+    private BufferedImage read(String key) throws IOException {
+        try (InputStream in = imageStorage.open(key)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                throw new IllegalArgumentException("지원하지 않는 이미지 형식입니다");
+            }
+            return image;
+        }
+    }
+
+    /** 비율을 유지해 가로를 width 로 줄인다. 원본이 더 작으면 키우지 않는다. */
+    private BufferedImage resize(BufferedImage original, int width) {
+        int targetWidth = Math.min(width, original.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) original.getHeight() * targetWidth / original.getWidth()));
+        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // jpg 는 투명도가 없으므로 배경을 흰색으로 채운다.
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(original, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
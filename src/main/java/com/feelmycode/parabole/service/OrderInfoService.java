@@ -10,16 +10,19 @@ import com.feelmycode.parabole.dto.OrderInfoResponseDto;
 import com.feelmycode.parabole.dto.OrderInfoSimpleDto;
 import com.feelmycode.parabole.dto.OrderRequestDto;
 import com.feelmycode.parabole.dto.OrderResponseDto;
-import com.feelmycode.parabole.dto.SellerDto;
 import com.feelmycode.parabole.global.error.exception.NoDataException;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.repository.OrderBulkRepository;
 import com.feelmycode.parabole.repository.OrderInfoRepository;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,32 +36,43 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class OrderInfoService {
 
+    private static final Long DELIVERY_FEE = 0L;
+
     private final OrderInfoRepository orderInfoRepository;
+    private final OrderBulkRepository orderBulkRepository;
     private final OrderService orderService;
     private final ProductService productService;
     private final SellerService sellerService;
     private final CouponService couponService;
+    private final UserService userService;
 
+    /**
+     * 결제할 상품 목록으로 새 주문을 만든다. 이전의 결제 전 주문은 지운다.
+     * 상품과 판매자는 fetch join 쿼리 한 번으로 읽고, 주문 상품은 INSERT 한 번으로 저장한다.
+     */
     @Transactional
-    public void saveOrderInfo(Long userId, OrderInfoSimpleDto orderInfoDto) {
-        Order order = orderService.getOrder(userId);
-
-        Product product = productService.getProduct(orderInfoDto.getProductId());
-        SellerDto seller = sellerService.getSellerBySellerId(product.getSeller().getId());
-
-        OrderInfo orderInfo = new OrderInfo(order,
-            null,
-            orderInfoDto.getProductId(),
-            product.getName(),
-            orderInfoDto.getProductCnt(),
-            product.getPrice(),
-            seller.getSellerId(),
-            seller.getStoreName());
-
-        // 각각의 주문상품에 대한 배달 여부 저장(default -1)
-        orderInfo.setState(-1);
+    public void checkout(Long userId, List<OrderInfoSimpleDto> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "결제할 상품이 없습니다.");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (OrderInfoSimpleDto line : lines) {
+            if (line.getProductId() == null || line.getProductCnt() == null || line.getProductCnt() <= 0) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "결제할 상품을 추가할 수 없습니다.");
+            }
+            productIds.add(line.getProductId());
+        }
+        Map<Long, Product> products = productService.getProductsWithSeller(productIds);
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null || product.isDeleted() || product.getSeller() == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "상품이 존재하지 않습니다. (상품 id : " + productId + ")");
+            }
+        }
 
-        orderInfoRepository.save(orderInfo);
+        orderService.checkOrderState(userId);
+        Order order = orderService.createOrder(new Order(userService.getUser(userId), DELIVERY_FEE));
+        orderBulkRepository.insertInfos(order.getId(), lines, products, LocalDateTime.now());
     }
 
     @Transactional
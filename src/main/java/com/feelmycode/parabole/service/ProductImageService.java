@@ -0,0 +1,124 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.enumtype.ImageSize;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.infra.ImageStorage;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 상품 이미지 업로드.
+ * 파일마다 길이를 알려주며 스트림으로 저장소에 올리고, 업로드는 크기가 제한된 풀에서 동시에 진행한다.
+ * 첫 번째 이미지는 썸네일, 나머지는 상세 이미지이며 DB 반영은 모든 업로드가 끝난 뒤 트랜잭션 하나로 한다.
+ * 하나라도 실패하면 이미 올라간 파일을 지우고 DB 는 바꾸지 않는다.
+ * 저장이 끝나면 크기별 축소본 생성을 ImageDerivativeService 에 맡긴다.
+ */
+@Slf4j
+@Service
+public class ProductImageService {
+
+    private final ProductService productService;
+    private final ProductBulkRepository productBulkRepository;
+    private final ImageStorage imageStorage;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Executor imageUploadExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImageService(ProductService productService,
+        ProductBulkRepository productBulkRepository,
+        ImageStorage imageStorage,
+        ImageDerivativeService imageDerivativeService,
+        @Qualifier("imageUploadExecutor") Executor imageUploadExecutor,
+        TransactionTemplate transactionTemplate) {
+        this.productService = productService;
+        this.productBulkRepository = productBulkRepository;
+        this.imageStorage = imageStorage;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** 업로드된 이미지 URL 을 파일 순서대로 반환 */
+    public List<String> upload(Long productId, List<MultipartFile> files) {
+        productService.getProduct(productId);
+
+        String thumbnailImg;
+        List<String> detailImgs;
+        List<String> urls;
+        if (files == null || files.isEmpty()) {
+            urls = List.of(ImageSize.NO_IMAGE);
+            thumbnailImg = ImageSize.NO_IMAGE;
+            detailImgs = List.of(ImageSize.NO_IMAGE);
+        } else {
+            // 확장자가 잘못된 파일이 있으면 아무것도 올리지 않는다.
+            List<String> keys = new ArrayList<>(files.size());
+            for (MultipartFile file : files) {
+                keys.add(createKey(file.getOriginalFilename()));
+            }
+            urls = storeAll(keys, files);
+            thumbnailImg = urls.get(0);
+            detailImgs = urls.subList(1, urls.size());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.updateProductThumbnailImg(productId, thumbnailImg);
+            productBulkRepository.insertDetails(productId, detailImgs, "");
+        });
+        imageDerivativeService.generateAsync(productId, urls);
+        return urls;
+    }
+
+    private List<String> storeAll(List<String> keys, List<MultipartFile> files) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String key = keys.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> store(key, file), imageUploadExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            log.error("이미지 업로드 실패 : {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            for (int i = 0; i < futures.size(); i++) {
+                if (!futures.get(i).isCompletedExceptionally()) {
+                    imageStorage.delete(keys.get(i));
+                }
+            }
+            throw new ParaboleException(HttpStatus.INTERNAL_SERVER_ERROR, "이미지 업로드에 실패했습니다.");
+        }
+
+        List<String> urls = new ArrayList<>(futures.size());
+        futures.forEach(future -> urls.add(future.join()));
+        return urls;
+    }
+
+    private String store(String key, MultipartFile file) {
+        try {
+            return imageStorage.store(key, file.getInputStream(), file.getSize(), file.getContentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String createKey(String originalFileName) {
+        int dot = originalFileName == null ? -1 : originalFileName.lastIndexOf('.');
+        if (dot < 0) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, String.format("잘못된 형식의 파일 (%s) 입니다", originalFileName));
+        }
+        return UUID.randomUUID().toString().concat(originalFileName.substring(dot));
+    }
+}
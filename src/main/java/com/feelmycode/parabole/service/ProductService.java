@@ -2,21 +2,42 @@ package com.feelmycode.parabole.service;
 
 import com.feelmycode.parabole.domain.Product;
 import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.dto.ProductCursorResponseDto;
 import com.feelmycode.parabole.dto.ProductDetailDto;
 import com.feelmycode.parabole.dto.ProductDetailListResponseDto;
+import com.feelmycode.parabole.dto.ProductDetailRowDto;
 import com.feelmycode.parabole.dto.ProductDto;
+import com.feelmycode.parabole.dto.ProductFacetDto;
 import com.feelmycode.parabole.dto.ProductRequestDto;
+import com.feelmycode.parabole.enumtype.RankingType;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.global.util.CursorUtil;
+import com.feelmycode.parabole.infra.ProductCatalogCache;
+import com.feelmycode.parabole.infra.ProductFacetCounter;
+import com.feelmycode.parabole.infra.ProductRankingBoard;
+import com.feelmycode.parabole.infra.ProductSearchIndex;
 import com.feelmycode.parabole.repository.ProductRepository;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -25,48 +46,75 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ProductService {
 
+    private static final int MAX_DETAIL_IDS = 100;
+
     private final ProductRepository productRepository;
-    private final ProductDetailService productDetailService;
     private final SellerService sellerService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductRankingBoard productRankingBoard;
+    private final ProductFacetCounter productFacetCounter;
+    private final ProductStockService productStockService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Long saveProduct(Long userId, ProductRequestDto dto) {
         Product product = dto.dtoToEntity();
 
         product.setSeller(sellerService.getSellerByUserId(userId));
-        return productRepository.save(product).getId();
+        Long productId = productRepository.save(product).getId();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product, null));
+        return productId;
     }
 
     @Transactional
     public void updateProductThumbnailImg(Long productId, String thumbnailImg) {
         Product getProduct = this.getProduct(productId);
         getProduct.setThumbnailImg(thumbnailImg);
+        eventPublisher.publishEvent(ProductChangedEvent.refreshed(getProduct));
     }
 
     @Transactional
     public Long updateProduct(Long userId, Product product) {
         sellerService.getSellerByUserId(userId);
         Product getProduct = this.getProduct(product.getId());
+        String previousCategory = getProduct.getCategory();
         getProduct.setProduct(product);
         productRepository.save(getProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(getProduct, previousCategory));
         return product.getId();
     }
 
+    /** 판매자 본인의 상품만 삭제(soft delete)할 수 있다. */
     @Transactional
-    public Boolean setProductRemains(Long productId, Long stock) {
+    public void deleteProduct(Long userId, Long productId) {
+        Seller seller = sellerService.getSellerByUserId(userId);
         Product getProduct = this.getProduct(productId);
+        if (seller == null || !getProduct.getSeller().getId().equals(seller.getId())) {
+            throw new ParaboleException(HttpStatus.FORBIDDEN, "상품을 삭제할 권한이 없습니다.");
+        }
+        if (getProduct.isDeleted()) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "이미 삭제된 상품입니다.");
+        }
+        getProduct.delete();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(getProduct, null));
+    }
+
+    /** 이벤트 서버에서 호출. 재고가 부족하면 false */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Boolean setProductRemains(Long productId, Long stock) {
         try {
             if (stock < 0) {
-                getProduct.removeRemains(stock * -1);
-            } else {
-                getProduct.addRemains(stock);
+                productStockService.decrease(productId, stock * -1);
+            } else if (stock > 0) {
+                productStockService.increase(productId, stock);
             }
-            productRepository.save(getProduct);
         } catch (Exception e) {
             log.error(e.getMessage());
+            return false;
         }
         return true;
-    };
+    }
 
     public Product getProduct(Long productId) {
         return productRepository.findById(productId)
@@ -74,9 +122,51 @@ public class ProductService {
     }
 
     public ProductDetailListResponseDto getProductDetail(Long productId) {
-        Product getProduct = getProduct(productId);
-        List<ProductDetailDto> productDetailList = productDetailService.getProductDetailList(productId).stream().map(ProductDetailDto::new).toList();
-        return new ProductDetailListResponseDto(new ProductDto(getProduct), productDetailList, getProduct.getSeller().getStoreName());
+        return productCatalogCache.getDetail(productId, () -> {
+            ProductDetailListResponseDto response = loadDetails(List.of(productId)).get(productId);
+            if (response == null) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "상품이 존재하지 않습니다.");
+            }
+            return response;
+        });
+    }
+
+    /** 여러 상품의 상세 정보를 요청 순서대로 반환한다. 존재하지 않는 상품은 빠진다. */
+    public List<ProductDetailListResponseDto> getProductDetails(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "조회할 상품 id 가 없습니다.");
+        }
+        if (productIds.size() > MAX_DETAIL_IDS) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "한 번에 " + MAX_DETAIL_IDS + "개까지 조회할 수 있습니다.");
+        }
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, ProductDetailListResponseDto> details = productCatalogCache.getDetails(ids, this::loadDetails);
+
+        List<ProductDetailListResponseDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (details.containsKey(id)) {
+                result.add(details.get(id));
+            }
+        }
+        return result;
+    }
+
+    /** 상품, 상호, 상세 이미지를 쿼리 한 번으로 읽어 DTO 로 바로 만든다. */
+    private Map<Long, ProductDetailListResponseDto> loadDetails(Collection<Long> productIds) {
+        Map<Long, ProductDetailRowDto> products = new LinkedHashMap<>();
+        Map<Long, List<ProductDetailDto>> details = new HashMap<>();
+        for (ProductDetailRowDto row : productRepository.findDetailRows(productIds)) {
+            products.putIfAbsent(row.getProductId(), row);
+            List<ProductDetailDto> detailList = details.computeIfAbsent(row.getProductId(), id -> new ArrayList<>());
+            if (row.getProductDetailId() != null) {
+                detailList.add(new ProductDetailDto(row));
+            }
+        }
+
+        Map<Long, ProductDetailListResponseDto> result = new HashMap<>();
+        products.forEach((id, row) -> result.put(id,
+            new ProductDetailListResponseDto(new ProductDto(row), details.get(id), row.getStoreName())));
+        return result;
     }
 
     public List<String> getProductListByStoreName(String storeName) {
@@ -117,27 +207,135 @@ public class ProductService {
             sellerId = seller.getId();
         }
 
-        Page<Product> data;
-        if(!sellerId.equals(0L)) {
-            if (category.equals("")) {
-                data = productRepository.findAllBySellerIdAndIsDeletedFalse(sellerId, pageable);
-            } else {
-                data = productRepository.findAllBySellerIdAndCategoryAndIsDeletedFalse(sellerId, category,
-                    pageable);
+        if (!productName.equals("") && sellerId.equals(0L)) {
+            if (productSearchIndex.isReady() && pageable.getSort().isUnsorted()) {
+                return searchByIndex(productName, category, pageable);
             }
-        } else if (!productName.equals("")) {
-            if (category.equals("")) {
-                data = productRepository.findAllByNameContainingAndIsDeletedFalse(productName, pageable);
+            Page<Product> data = category.equals("")
+                ? productRepository.findAllByNameContainingAndIsDeletedFalse(productName, pageable)
+                : productRepository.findAllByNameContainingAndCategoryAndIsDeletedFalse(productName, category, pageable);
+            return data.map(ProductDto::new);
+        }
+
+        Long getSellerId = sellerId;
+        return productCatalogCache.getList(getSellerId, category, pageable, () -> {
+            Page<Product> data;
+            if(!getSellerId.equals(0L)) {
+                if (category.equals("")) {
+                    data = productRepository.findAllBySellerIdAndIsDeletedFalse(getSellerId, pageable);
+                } else {
+                    data = productRepository.findAllBySellerIdAndCategoryAndIsDeletedFalse(getSellerId, category,
+                        pageable);
+                }
+            } else if (category.equals("")) {
+                data = productRepository.findAll(pageable);
             } else {
-                data = productRepository.findAllByNameContainingAndCategoryAndIsDeletedFalse(productName, category, pageable);
+                data = productRepository.findAllByCategoryAndIsDeletedFalse(category, pageable);
             }
-        } else if (category.equals("")) {
-            data = productRepository.findAll(pageable);
+            return data.map(ProductDto::new);
+        });
+    }
+
+    /** 판매자를 함께 읽는 IN 쿼리 한 번으로 상품들을 읽는다. 없는 상품은 결과에 없다. */
+    public Map<Long, Product> getProductsWithSeller(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllByIdIn(productIds).forEach(product -> products.put(product.getId(), product));
+        }
+        return products;
+    }
+
+    /** 카테고리별, 판매자별 상품 수. storeName 이 있으면 그 판매자의 카테고리별 상품 수 */
+    public ProductFacetDto getProductFacets(Long sellerId, String storeName) {
+        if (!storeName.equals("")) {
+            sellerId = sellerService.getSellerByStoreName(storeName).getId();
+        }
+        return productFacetCounter.getFacets(sellerId);
+    }
+
+    /**
+     * 인기순 상품 목록. 메모리 판매 순위에서 id 한 페이지를 받아 IN 쿼리 한 번으로 상품을 읽는다.
+     * 순위에는 한 번이라도 팔린 상품만 있으며 전체 건수는 순위에 든 상품 수이다.
+     */
+    public Page<ProductDto> getRankedProductList(RankingType rankingType, String category, Pageable pageable) {
+        Page<Long> ids = productRankingBoard.getPage(rankingType, category, pageable);
+        List<ProductDto> content = hydrate(ids.getContent()).stream().map(ProductDto::new).toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * 커서 기반 상품 목록. 최신 상품(id 내림차순)부터 size 건씩 내려주며 전체 건수는 세지 않는다.
+     * offset 을 건너뛰지 않고 커서의 id 부터 인덱스를 바로 탐색하므로 페이지가 깊어져도 느려지지 않는다.
+     */
+    public ProductCursorResponseDto getProductSlice(Long sellerId, String storeName, String productName,
+        String category, String cursor, int size) {
+
+        if(!storeName.equals("")) {
+            Seller seller = sellerService.getSellerByStoreName(storeName);
+            sellerId = seller.getId();
+        }
+
+        Long lastId = CursorUtil.decode(cursor);
+        Pageable pageable = PageRequest.of(0, size);
+
+        List<Product> data;
+        boolean hasNext;
+        Long nextId = null;
+        if(!sellerId.equals(0L)) {
+            Slice<Product> slice = category.equals("")
+                ? productRepository.findAllBySellerIdAndIsDeletedFalseAndIdLessThanOrderByIdDesc(sellerId, lastId, pageable)
+                : productRepository.findAllBySellerIdAndCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(sellerId, category, lastId, pageable);
+            data = slice.getContent();
+            hasNext = slice.hasNext();
+        } else if (!productName.equals("") && productSearchIndex.isReady()) {
+            List<Long> ids = productSearchIndex.searchBefore(productName, category, lastId, size + 1);
+            hasNext = ids.size() > size;
+            List<Long> pageIds = hasNext ? ids.subList(0, size) : ids;
+            data = hydrate(pageIds);
+            // 색인과 DB 사이에 지워진 상품이 빠져 data 가 비어도 다음 커서는 색인 후보 기준으로 이어간다.
+            nextId = pageIds.isEmpty() ? null : pageIds.get(pageIds.size() - 1);
         } else {
-            data = productRepository.findAllByCategoryAndIsDeletedFalse(category, pageable);
+            Slice<Product> slice;
+            if (!productName.equals("")) {
+                slice = category.equals("")
+                    ? productRepository.findAllByNameContainingAndIsDeletedFalseAndIdLessThanOrderByIdDesc(productName, lastId, pageable)
+                    : productRepository.findAllByNameContainingAndCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(productName, category, lastId, pageable);
+            } else if (category.equals("")) {
+                slice = productRepository.findAllByIsDeletedFalseAndIdLessThanOrderByIdDesc(lastId, pageable);
+            } else {
+                slice = productRepository.findAllByCategoryAndIsDeletedFalseAndIdLessThanOrderByIdDesc(category, lastId, pageable);
+            }
+            data = slice.getContent();
+            hasNext = slice.hasNext();
+        }
+
+        if (nextId == null && !data.isEmpty()) {
+            nextId = data.get(data.size() - 1).getId();
         }
+        List<ProductDto> content = data.stream().map(ProductDto::new).toList();
+        String nextCursor = hasNext && nextId != null ? CursorUtil.encode(nextId) : null;
+        return new ProductCursorResponseDto(content, size, hasNext, nextCursor);
+    }
 
-        return data.map(ProductDto::new);
+    /** 색인에서 순위대로 id 한 페이지를 받아 IN 쿼리 한 번으로 상품을 읽는다. */
+    private Page<ProductDto> searchByIndex(String productName, String category, Pageable pageable) {
+        Page<Long> ids = productSearchIndex.search(productName, category, pageable);
+        List<ProductDto> content = hydrate(ids.getContent()).stream().map(ProductDto::new).toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
     }
 
+    /** id 목록의 순서를 유지한 채 IN 쿼리 한 번으로 상품을 읽는다. */
+    private List<Product> hydrate(List<Long> ids) {
+        // ProductDto 가 판매자 정보를 읽으므로 판매자까지 한 번에 가져온다
+        Map<Long, Product> products = getProductsWithSeller(ids);
+
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product != null && !product.isDeleted()) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
 }
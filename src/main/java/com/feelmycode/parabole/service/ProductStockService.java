@@ -0,0 +1,428 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.dto.ProductStockDto;
+import com.feelmycode.parabole.dto.StockAdjustItemDto;
+import com.feelmycode.parabole.dto.StockAdjustResultDto;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.global.util.StripedStock;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 상품 재고 증감.
+ * 재고 차감은 "remains >= 수량" 조건을 건 UPDATE 한 번으로 처리해 동시에 구매해도 재고가 음수가 되지 않는다.
+ * 주문 하나의 여러 상품은 id 순서로 차감하고(교착 방지) 하나라도 부족하면 트랜잭션 전체를 되돌린다.
+ *
+ * 타임세일 상품은 DB 재고를 chunk-size 만큼씩 미리 차감해 메모리의 {@link StripedStock} 으로 가져오고,
+ * 가져온 수량 안에서 메모리로 차감한다. 메모리 재고가 모자라면 다시 가져오고, 종료할 때 팔지 못한 수량을 DB 로 돌려놓는다.
+ * 판매가 시작되기 전에 {@link #openFlashSale} 로 등록해야 한다.
+ *
+ * 메모리 재고는 DB 에서 이미 빠진 수량이므로 여러 인스턴스로 실행해도 초과 판매하지 않는다.
+ * 다른 인스턴스는 타임세일을 모르고 남은 DB 재고로 차감한다. 다만 타임세일 등록 상태는 등록한 인스턴스의 메모리에만 있어
+ * 단일 인스턴스를 가정한다: 종료 요청도 같은 인스턴스로 보내야 하고(다른 인스턴스에서는 아무 일도 하지 않는다),
+ * 서버가 비정상 종료되면 가져온 수량 중 팔지 못한 것은 DB 로 돌아가지 않는다(덜 팔릴 뿐 초과 판매는 없다).
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ProductStockService {
+
+    private final ProductRepository productRepository;
+    private final ProductBulkRepository productBulkRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+    private final long chunkSize;
+    private final long closeTimeoutMs;
+
+    private final Map<Long, FlashSale> flashSales = new ConcurrentHashMap<>();
+
+    public ProductStockService(ProductRepository productRepository,
+        ProductBulkRepository productBulkRepository,
+        EntityManager entityManager,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        @Value("${product.stock.flash.stripes:8}") int stripes,
+        @Value("${product.stock.flash.chunk-size:100}") long chunkSize,
+        @Value("${product.stock.flash.close-timeout-ms:5000}") long closeTimeoutMs) {
+        this.productRepository = productRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        // 트랜잭션이 끝난 뒤(afterCompletion)에도 반영할 수 있게 항상 새 트랜잭션으로 실행한다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = stripes;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.closeTimeoutMs = closeTimeoutMs;
+    }
+
+    @Transactional
+    public void decrease(Long productId, Long cnt) {
+        reserve(Map.of(productId, cnt));
+    }
+
+    /** 주문 하나에 들어있는 상품들의 재고를 모두 차감하거나, 하나라도 부족하면 아무것도 차감하지 않는다. */
+    @Transactional
+    public void reserve(Map<Long, Long> quantities) {
+        Map<Long, Long> sorted = new TreeMap<>(quantities);
+        for (Long cnt : sorted.values()) {
+            if (cnt == null || cnt <= 0) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "차감할 재고 수량이 올바르지 않습니다.");
+            }
+        }
+
+        List<Long> dbProductIds = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : sorted.entrySet()) {
+            FlashSale flashSale = flashSales.get(entry.getKey());
+            // 종료 중인 타임세일이면 DB 로 차감한다. 종료가 끝날 때까지 행 잠금을 기다린다.
+            if (flashSale == null || !flashSale.enter()) {
+                dbProductIds.add(entry.getKey());
+                continue;
+            }
+            if (!acquire(entry.getKey(), flashSale, entry.getValue())) {
+                flashSale.leave();
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고가 부족합니다. (상품 id : " + entry.getKey() + ")");
+            }
+            // 이후에 실패해서 롤백되면 메모리 재고를 돌려놓는다. 커밋되면 DB 는 가져올 때 이미 차감했다.
+            afterCompletion(entry.getKey(), flashSale, entry.getValue());
+        }
+
+        for (Long productId : dbProductIds) {
+            if (productRepository.decreaseRemains(productId, sorted.get(productId)) == 0) {
+                throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고가 부족하거나 존재하지 않는 상품입니다. (상품 id : " + productId + ")");
+            }
+        }
+        refresh(dbProductIds);
+    }
+
+    @Transactional
+    public void increase(Long productId, Long cnt) {
+        if (cnt == null || cnt <= 0) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "추가할 재고 수량이 올바르지 않습니다.");
+        }
+        // 타임세일 상품이면 메모리 재고가 모자랄 때 DB 에서 가져간다.
+        if (productRepository.increaseRemains(productId, cnt) == 0) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "상품이 존재하지 않습니다.");
+        }
+        refresh(List.of(productId));
+    }
+
+    /**
+     * 여러 상품의 재고 증감을 요청 순서대로 판정하고 반영할 수 있는 것만 UPDATE 한 번으로 반영한다.
+     * 반영할 수 없는 항목(없는 상품, 재고 부족)은 실패로 돌려주고 나머지는 그대로 반영한다. 결과는 items 와 같은 순서
+     */
+    @Transactional
+    public List<StockAdjustResultDto> adjust(List<StockAdjustItemDto> items) {
+        Set<Long> productIds = new TreeSet<>();
+        items.forEach(item -> productIds.add(item.getId()));
+        Map<Long, ProductStockDto> stocks = new HashMap<>();
+        productBulkRepository.lockStocks(productIds).forEach(stock -> stocks.put(stock.getProductId(), stock));
+
+        Map<Long, Long> remains = new HashMap<>();
+        Map<Long, Long> deltas = new TreeMap<>();
+        List<StockAdjustResultDto> results = new ArrayList<>(items.size());
+        for (StockAdjustItemDto item : items) {
+            ProductStockDto stock = stocks.get(item.getId());
+            if (stock == null) {
+                results.add(StockAdjustResultDto.fail(item, "상품이 존재하지 않습니다."));
+                continue;
+            }
+            if (item.getStock() == null || item.getStock() == 0) {
+                results.add(StockAdjustResultDto.fail(item, "증감할 재고 수량이 올바르지 않습니다."));
+                continue;
+            }
+            long delta = item.getStock();
+            // 타임세일 상품은 이미 가져온 메모리 재고에서 먼저 차감한다. 상품 행을 잠그고 있으므로 새로 가져오지는 않고
+            // 메모리 재고가 모자라면 DB 재고로 차감한다.
+            FlashSale flashSale = flashSales.get(item.getId());
+            if (flashSale != null && delta < 0 && flashSale.enter()) {
+                if (flashSale.stock.tryAcquire(-delta)) {
+                    afterCompletion(item.getId(), flashSale, -delta);
+                    results.add(StockAdjustResultDto.success(item));
+                    continue;
+                }
+                flashSale.leave();
+            }
+            long current = remains.getOrDefault(item.getId(), stock.getRemains());
+            if (current + delta < 0) {
+                results.add(StockAdjustResultDto.fail(item, "재고가 부족합니다."));
+                continue;
+            }
+            remains.put(item.getId(), current + delta);
+            deltas.merge(item.getId(), delta, Long::sum);
+            results.add(StockAdjustResultDto.success(item));
+        }
+
+        deltas.values().removeIf(delta -> delta == 0);
+        productBulkRepository.addRemains(deltas);
+        for (Long productId : deltas.keySet()) {
+            refreshIfManaged(productId);
+            ProductStockDto stock = stocks.get(productId);
+            eventPublisher.publishEvent(ProductChangedEvent.refreshed(productId, stock.getSellerId(), stock.getCategory()));
+        }
+        return results;
+    }
+
+    /** 타임세일 상품이면 DB 재고에 메모리로 가져온 재고를 더해 반환 */
+    public Long getRemains(Product product) {
+        FlashSale flashSale = flashSales.get(product.getId());
+        return flashSale == null ? product.getRemains() : product.getRemains() + flashSale.stock.available();
+    }
+
+    /** 타임세일로 등록한다. 재고는 첫 판매 때 DB 에서 가져온다. 판매 가능한 수량을 반환 */
+    @Transactional
+    public Long openFlashSale(Long sellerId, Long productId) {
+        Product product = getOwnProductForUpdate(sellerId, productId);
+        FlashSale flashSale = flashSales.computeIfAbsent(productId, id -> new FlashSale(new StripedStock(0, stripes)));
+        if (flashSale.closed) {
+            throw new ParaboleException(HttpStatus.CONFLICT, "타임세일을 종료하는 중입니다. 잠시 후 다시 시도해주세요.");
+        }
+        return product.getRemains() + flashSale.stock.available();
+    }
+
+    /**
+     * 상품 행을 잠근 트랜잭션 안에서 새 예약을 막고, 진행 중인 예약이 끝나길 기다린 뒤 팔지 못한 메모리 재고를 DB 로 돌려놓는다.
+     * 돌려놓지 못하면 타임세일을 그대로 이어간다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void closeFlashSale(Long sellerId, Long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            getOwnProductForUpdate(sellerId, productId);
+            FlashSale flashSale = flashSales.get(productId);
+            if (flashSale == null) {
+                return;
+            }
+            flashSale.closed = true;
+            if (!flashSale.awaitIdle(closeTimeoutMs)) {
+                // 늦게 끝나는 예약이 롤백되면 afterCompletion 에서 DB 로 직접 돌려놓는다.
+                log.warn("타임세일 종료 중 끝나지 않은 예약이 있습니다. productId : {}", productId);
+            }
+            long unsold = flashSale.retire();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        flashSales.remove(productId, flashSale);
+                        return;
+                    }
+                    flashSale.reopen(unsold);
+                }
+            });
+            if (unsold > 0) {
+                productRepository.increaseRemains(productId, unsold);
+            }
+            productRepository.findById(productId)
+                .ifPresent(product -> eventPublisher.publishEvent(ProductChangedEvent.refreshed(product)));
+        });
+    }
+
+    /** 서버를 내릴 때 팔지 못한 메모리 재고를 DB 로 돌려놓는다. */
+    @PreDestroy
+    public void shutdown() {
+        flashSales.forEach((productId, flashSale) -> {
+            flashSale.closed = true;
+            flashSale.awaitIdle(closeTimeoutMs);
+            giveBack(productId, flashSale.retire());
+        });
+        flashSales.clear();
+    }
+
+    /** 메모리 재고에서 차감한다. 모자라면 DB 에서 더 가져와 다시 시도하고, DB 재고도 모자라면 false */
+    private boolean acquire(Long productId, FlashSale flashSale, long cnt) {
+        while (!flashSale.stock.tryAcquire(cnt)) {
+            if (!refill(productId, flashSale, cnt)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * DB 재고를 chunk-size(요청 수량이 더 크면 요청 수량)까지 차감해 메모리 재고에 더한다. 가져온 것이 없으면 false
+     * 여러 스레드가 동시에 모자라도 한 스레드만 가져오고, 가져오는 동안 상품 행을 잠그는 시간을 줄이려고 새 트랜잭션으로 바로 커밋한다.
+     * 가져오지 못하면(DB 오류 포함) 그 요청은 실패하고 다음 요청이 다시 시도한다. 판매 수량을 나중에 반영하지 않으므로 되풀이할 것이 없다.
+     */
+    private boolean refill(Long productId, FlashSale flashSale, long cnt) {
+        synchronized (flashSale.refillLock) {
+            if (flashSale.stock.available() >= cnt) {
+                return true;
+            }
+            long want = Math.max(chunkSize, cnt);
+            Long taken = transactionTemplate.execute(status -> {
+                Product product = productRepository.findForUpdate(productId).orElse(null);
+                // 잠금을 기다리는 사이 종료된 타임세일에는 가져오지 않는다.
+                if (product == null || flashSale.closed) {
+                    return 0L;
+                }
+                long take = Math.min(want, product.getRemains());
+                if (take > 0) {
+                    productRepository.decreaseRemains(productId, take);
+                    eventPublisher.publishEvent(ProductChangedEvent.refreshed(product));
+                }
+                return take;
+            });
+            if (taken == null || taken == 0) {
+                return false;
+            }
+            if (!flashSale.put(taken)) {
+                giveBack(productId, taken);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** 메모리로 가져왔지만 팔지 않은 수량을 새 트랜잭션으로 DB 에 돌려놓는다. 실패하면 그만큼 덜 팔릴 뿐이므로 기록만 남긴다. */
+    private void giveBack(Long productId, long cnt) {
+        if (cnt <= 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> productRepository.increaseRemains(productId, cnt));
+        } catch (RuntimeException e) {
+            log.error("타임세일 재고 반환 실패 productId : {} / 수량 : {}", productId, cnt, e);
+        }
+    }
+
+    private void afterCompletion(Long productId, FlashSale flashSale, Long cnt) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // 종료 때 기다리지 못하고 늦게 롤백된 예약은 DB 로 돌려놓는다.
+                if (status != STATUS_COMMITTED && !flashSale.put(cnt)) {
+                    giveBack(productId, cnt);
+                }
+                flashSale.leave();
+            }
+        });
+    }
+
+    /** JDBC 로 바꾼 상품이 영속성 컨텍스트에 올라와 있으면 다시 읽는다. 올라와 있지 않으면 처음 읽을 때 바뀐 값을 읽는다. */
+    private Product refreshIfManaged(Long productId) {
+        Product product = entityManager.getReference(Product.class, productId);
+        if (Hibernate.isInitialized(product)) {
+            entityManager.refresh(product);
+        }
+        return product;
+    }
+
+    /** 조건부 UPDATE 로 바뀐 재고를 영속성 컨텍스트의 상품에도 반영해, 이후 변경 감지가 이전 값으로 덮어쓰지 않게 한다. */
+    private void refresh(List<Long> productIds) {
+        for (Long productId : productIds) {
+            eventPublisher.publishEvent(ProductChangedEvent.refreshed(refreshIfManaged(productId)));
+        }
+    }
+
+    private Product getOwnProductForUpdate(Long sellerId, Long productId) {
+        Product product = productRepository.findForUpdate(productId)
+            .orElseThrow(() -> new ParaboleException(HttpStatus.BAD_REQUEST, "상품이 존재하지 않습니다."));
+        if (!product.getSeller().getId().equals(sellerId)) {
+            throw new ParaboleException(HttpStatus.FORBIDDEN, "판매자 본인의 상품만 타임세일로 등록할 수 있습니다.");
+        }
+        return product;
+    }
+
+    private static class FlashSale {
+
+        // DB 에서 이미 차감해 가져온 재고
+        private final StripedStock stock;
+        private final Object refillLock = new Object();
+        // 메모리 재고를 차감했지만 트랜잭션이 아직 끝나지 않은 예약 수
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // 종료를 시작해 새 예약을 받지 않는 상태
+        private volatile boolean closed;
+        // 종료하며 남은 메모리 재고를 DB 로 돌려놓은 상태. 이후에 돌아오는 수량은 DB 로 돌려놓는다.
+        private boolean retired;
+
+        private FlashSale(StripedStock stock) {
+            this.stock = stock;
+        }
+
+        /** 메모리 재고에 더한다. 이미 종료했으면 더하지 않고 false */
+        private synchronized boolean put(long cnt) {
+            if (retired) {
+                return false;
+            }
+            stock.release(cnt);
+            return true;
+        }
+
+        /** 메모리 재고를 모두 꺼내고 이후에 돌아오는 수량은 받지 않는다. 꺼낸 수량을 반환 */
+        private synchronized long retire() {
+            retired = true;
+            return stock.drain();
+        }
+
+        /** 종료 트랜잭션이 롤백되면 꺼낸 수량을 돌려놓고 다시 판매한다. */
+        private synchronized void reopen(long unsold) {
+            retired = false;
+            stock.release(unsold);
+            closed = false;
+        }
+
+        /** 예약을 시작한다. 종료 중이면 false */
+        private boolean enter() {
+            inFlight.incrementAndGet();
+            if (closed) {
+                leave();
+                return false;
+            }
+            return true;
+        }
+
+        private void leave() {
+            if (inFlight.decrementAndGet() == 0 && closed) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /** 진행 중인 예약이 모두 끝날 때까지 기다린다. 시간 안에 끝나지 않으면 false */
+        private synchronized boolean awaitIdle(long timeoutMs) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (inFlight.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.dto.StockAdjustItemDto;
+import com.feelmycode.parabole.dto.StockAdjustRequestDto;
+import com.feelmycode.parabole.dto.StockAdjustResultDto;
+import com.feelmycode.parabole.enumtype.PrizeType;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 이벤트 서버의 상품/쿠폰 재고 증감 요청을 한 번에 처리한다.
+ * 한 트랜잭션에서 처리하며, 항목마다 반영 여부와 실제 반영 수량을 요청 순서대로 돌려준다.
+ * 반영할 수 없는 항목은 실패로 표시할 뿐 다른 항목을 되돌리지 않는다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class StockAdjustService {
+
+    private final ProductStockService productStockService;
+    private final CouponReservationService couponReservationService;
+    private final int maxItems;
+
+    public StockAdjustService(ProductStockService productStockService,
+        CouponReservationService couponReservationService,
+        @Value("${stock.batch.max-items:500}") int maxItems) {
+        this.productStockService = productStockService;
+        this.couponReservationService = couponReservationService;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public List<StockAdjustResultDto> adjust(StockAdjustRequestDto dto) {
+        List<StockAdjustItemDto> items = dto.getItemList();
+        if (items == null || items.isEmpty()) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "증감할 재고 정보가 없습니다.");
+        }
+        if (items.size() > maxItems) {
+            throw new ParaboleException(HttpStatus.BAD_REQUEST, "한 번에 " + maxItems + "건까지 요청할 수 있습니다.");
+        }
+
+        StockAdjustResultDto[] results = new StockAdjustResultDto[items.size()];
+        List<Integer> productIndexes = new ArrayList<>();
+        List<Integer> couponIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            StockAdjustItemDto item = items.get(i);
+            if (item.getId() == null) {
+                results[i] = StockAdjustResultDto.fail(item, "id 가 없습니다.");
+            } else if (PrizeType.PRODUCT.getCode().equals(item.getType())) {
+                productIndexes.add(i);
+            } else if (PrizeType.COUPON.getCode().equals(item.getType())) {
+                couponIndexes.add(i);
+            } else {
+                results[i] = StockAdjustResultDto.fail(item, "알 수 없는 재고 종류입니다.");
+            }
+        }
+
+        adjust(items, productIndexes, productStockService::adjust, results);
+        adjust(items, couponIndexes, couponReservationService::adjust, results);
+        return List.of(results);
+    }
+
+    /** indexes 의 항목만 모아 adjuster 로 한 번에 처리하고 결과를 제자리에 넣는다. */
+    private void adjust(List<StockAdjustItemDto> items, List<Integer> indexes,
+        Function<List<StockAdjustItemDto>, List<StockAdjustResultDto>> adjuster, StockAdjustResultDto[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<StockAdjustItemDto> selected = new ArrayList<>(indexes.size());
+        indexes.forEach(i -> selected.add(items.get(i)));
+        List<StockAdjustResultDto> adjusted = adjuster.apply(selected);
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = adjusted.get(i);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.feelmycode.parabole.domain.Cart;
 import com.feelmycode.parabole.domain.CartItem;
 import com.feelmycode.parabole.domain.Order;
 import com.feelmycode.parabole.domain.OrderInfo;
-import com.feelmycode.parabole.domain.Product;
 import com.feelmycode.parabole.domain.User;
 import com.feelmycode.parabole.dto.OrderInfoRequestDto;
 import com.feelmycode.parabole.dto.OrderInfoRequestListDto;
@@ -15,12 +14,17 @@ import com.feelmycode.parabole.enumtype.OrderPayState;
 import com.feelmycode.parabole.enumtype.OrderState;
 import com.feelmycode.parabole.global.error.exception.NoDataException;
 import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.global.event.ProductSoldEvent;
+import com.feelmycode.parabole.infra.CartStore;
 import com.feelmycode.parabole.repository.CartItemRepository;
 import com.feelmycode.parabole.repository.OrderInfoRepository;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,7 +41,9 @@ public class UpdateService {
     private final OrderService orderService;
     private final CartItemRepository cartItemRepository;
     private final CartService cartService;
-    private final ProductService productService;
+    private final CartStore cartStore;
+    private final ProductStockService productStockService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void updateOrderInfoState(Long userId, OrderInfoRequestDto orderInfoRequestDto) {
@@ -56,13 +62,14 @@ public class UpdateService {
             if (orderInfoService.isDeliveryComplete(user.getId())) {
                 List<OrderInfo> getOrderInfoList = orderInfoService.getOrderInfoListByOrderId(order.getId());
 
+                Map<Long, Long> quantities = new HashMap<>();
                 for (OrderInfo info : getOrderInfoList) {
                     info.setState(orderInfoRequestDto.getOrderInfoState());
-                    Long productId = info.getProductId();
-                    Product getProduct = productService.getProduct(productId);
-                    getProduct.removeRemains(Long.valueOf(info.getProductCnt()));
-                    productService.updateProduct(userId, getProduct);
+                    quantities.merge(info.getProductId(), Long.valueOf(info.getProductCnt()), Long::sum);
                 }
+                // 주문의 모든 상품 재고를 한 번에 차감한다. 하나라도 부족하면 전체가 롤백된다.
+                productStockService.reserve(quantities);
+                eventPublisher.publishEvent(new ProductSoldEvent(quantities));
 
                 this.updateOrderState(userId, new OrderRequestDto(
                     OrderPayState.returnNameByValue(order.getPayState()).getState()));
@@ -74,6 +81,9 @@ public class UpdateService {
 
     @Transactional
     public void updateOrderState(Long userId, OrderRequestDto orderUpdateRequestDto) {
+        // 메모리에만 있는 장바구니 변경을 먼저 저장해야 아래에서 읽는 장바구니가 최신이다.
+        cartStore.flush(userId);
+
         Order order = orderService.getOrder(userId);
 
         if(order == null) {
@@ -131,6 +141,7 @@ public class UpdateService {
             }
 
             cartItemRepository.deleteAllById(cartIdList);
+            cartStore.evictAfterCommit(userId);
         }
     }
 
@@ -8,6 +8,7 @@ import static org.springframework.restdocs.operation.preprocess.Preprocessors.pr
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
 import static org.springframework.restdocs.payload.PayloadDocumentation.responseFields;
+import static org.springframework.restdocs.payload.PayloadDocumentation.subsectionWithPath;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.requestParameters;
 import static org.springframework.restdocs.restassured3.RestAssuredRestDocumentation.document;
@@ -17,6 +18,7 @@ import com.feelmycode.parabole.domain.CartItem;
 import com.feelmycode.parabole.dto.UserDto;
 import com.feelmycode.parabole.global.util.JwtUtils;
 import com.feelmycode.parabole.global.util.StringUtil;
+import com.feelmycode.parabole.infra.CartStore;
 import com.feelmycode.parabole.repository.CartItemRepository;
 import com.feelmycode.parabole.repository.CartRepository;
 import com.feelmycode.parabole.service.CartItemService;
@@ -27,7 +29,9 @@ import io.restassured.http.ContentType;
 import io.restassured.response.ExtractableResponse;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import java.util.List;
 import java.util.Optional;
+import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -73,6 +77,9 @@ public class CartControllerTest {
     @Autowired
     CartRepository cartRepository;
 
+    @Autowired
+    CartStore cartStore;
+
     @Autowired
     private JwtUtils jwtUtils;
 
@@ -85,7 +92,11 @@ public class CartControllerTest {
 
         // Given
         Optional<CartItem> cartItemOptional = cartItemRepository.findByCartIdAndProductId(3L, 3L);
-        cartItemOptional.ifPresent(cartItem -> cartItemRepository.deleteById(cartItem.getId()));
+        cartItemOptional.ifPresent(cartItem -> {
+            cartItemRepository.deleteById(cartItem.getId());
+            // DB 를 직접 바꿨으므로 메모리 장바구니를 다시 읽게 한다.
+            cartStore.evictAfterCommit(cartItem.getCart().getUser().getId());
+        });
     }
 
     private String getToken(final UserDto request) {
@@ -138,6 +149,7 @@ public class CartControllerTest {
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productPrice").type(JsonFieldType.NUMBER).description("상품 가격"),
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productCategory").type(JsonFieldType.STRING).description("상품 카테고리"),
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productThumbnailImg").type(JsonFieldType.STRING).description("상품 미리보기 이미지 url"),
+                        subsectionWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productThumbnailImgs").type(JsonFieldType.OBJECT).description("크기별 썸네일 이미지 url (list, card, detail)"),
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productCreatedAt").type(JsonFieldType.STRING).description("상품 등록일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productUpdatedAt").type(JsonFieldType.STRING).description("상품 수정일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                         fieldWithPath("data.cartBySellerDtoList.[].cartItemDtoList.[].product.productDeletedAt").type(JsonFieldType.STRING).description("상품 삭제일자 (yyyy-MM-dd'T'HH:mm:ss)").optional(),
@@ -219,7 +231,8 @@ public class CartControllerTest {
         Long userId = jwtUtils.extractUserId(token);
 
         JSONObject request = new JSONObject();
-        request.put("cartItemId", cartItemRepository.findByCartIdAndProductId(11L, 3L).get().getId());
+        Long cartId = cartRepository.findByUserId(userId).get().getId();
+        request.put("cartItemId", cartItemRepository.findByCartIdAndProductId(cartId, 3L).get().getId());
         request.put("productId", 3L);
         request.put("cnt", 10);
 
@@ -263,8 +276,12 @@ public class CartControllerTest {
         UserDto userDto = UserDto.builder().email("1111").password("1111").build();
         String token = getToken(userDto);
 
+        Long userId = jwtUtils.extractUserId(token);
+
 //        cartItemService.addItem(userId, new CartAddItemRequestDto(3L, 3));
-        Long cartItemId = cartItemRepository.findByCartIdAndProductId(11L, 3L).get().getId();
+        // 장바구니 상품은 본인 장바구니에서만 바꿀 수 있다.
+        Long cartId = cartRepository.findByUserId(userId).get().getId();
+        Long cartItemId = cartItemRepository.findByCartIdAndProductId(cartId, 3L).get().getId();
 
         // When
         Response resp = given(this.spec)
@@ -295,4 +312,62 @@ public class CartControllerTest {
         // Then
         Assertions.assertEquals(HttpStatus.OK.value(), resp.statusCode());
     }
+
+    @Test
+    @DisplayName("장바구니 일괄 변경")
+    public void test05_applyBatch() {
+
+        // Given
+        UserDto userDto = UserDto.builder().email("1111").password("1111").build();
+        String token = getToken(userDto);
+        Long userId = jwtUtils.extractUserId(token);
+
+        // 이미 담긴 상품은 지우고 다시 담는다.
+        Long cartId = cartRepository.findByUserId(userId).get().getId();
+        JSONArray deleteList = new JSONArray();
+        cartItemRepository.findByCartIdAndProductId(cartId, 3L)
+            .ifPresent(cartItem -> deleteList.add(cartItem.getId()));
+
+        JSONObject add = new JSONObject();
+        add.put("productId", 3L);
+        add.put("cnt", 2);
+        JSONObject request = new JSONObject();
+        request.put("addList", List.of(add));
+        request.put("updateList", List.of());
+        request.put("deleteList", deleteList);
+
+        // When
+        Response resp = given(this.spec)
+            .body(request.toJSONString())
+            .accept(ContentType.JSON)
+            .contentType(ContentType.JSON)
+            .header("Authorization", "Bearer " + token)
+            .filter(
+                document(
+                    "cart-batch",
+                    preprocessRequest(modifyUris().scheme("https").host("parabole.com"),
+                        prettyPrint()),
+                    preprocessResponse(prettyPrint()),
+                    requestFields(
+                        fieldWithPath("addList").type(JsonFieldType.ARRAY).description("새로 담을 상품 목록"),
+                        fieldWithPath("addList.[].productId").type(JsonFieldType.NUMBER).description("상품 아이디"),
+                        fieldWithPath("addList.[].cnt").type(JsonFieldType.NUMBER).description("수량"),
+                        fieldWithPath("updateList").type(JsonFieldType.ARRAY).description("수량을 바꿀 장바구니 상품 목록 (cartItemId, productId, cnt)"),
+                        fieldWithPath("deleteList").type(JsonFieldType.ARRAY).description("지울 장바구니 상품 아이디 목록")
+                    ),
+                    responseFields(
+                        fieldWithPath("success").type(JsonFieldType.BOOLEAN).description("성공여부"),
+                        fieldWithPath("message").type(JsonFieldType.STRING).description("메시지"),
+                        subsectionWithPath("data").type(JsonFieldType.OBJECT).description("변경된 장바구니 (장바구니 목록 조회와 같음)")
+                    )
+                )
+            )
+            .when()
+            .port(port)
+            .post("/api/v1/cart/batch");
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), resp.statusCode());
+        Assertions.assertTrue(cartItemRepository.findByCartIdAndProductId(cartId, 3L).isPresent());
+    }
 }
@@ -292,7 +292,11 @@ public class CouponControllerTest {
                         fieldWithPath("data.type").type(JsonFieldType.STRING)
                             .description("쿠폰 유형"),
                         fieldWithPath("data.cnt").type(JsonFieldType.NUMBER)
-                            .description("쿠폰 발행 수량")
+                            .description("쿠폰 발행 수량"),
+                        fieldWithPath("data.issueJobId").type(JsonFieldType.NUMBER)
+                            .description("쿠폰 발행 작업 ID"),
+                        fieldWithPath("data.issueState").type(JsonFieldType.STRING)
+                            .description("쿠폰 발행 작업 상태")
                     )
                 )
             )
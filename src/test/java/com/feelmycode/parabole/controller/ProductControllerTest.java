@@ -8,6 +8,7 @@ import static org.springframework.restdocs.operation.preprocess.Preprocessors.pr
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
 import static org.springframework.restdocs.payload.PayloadDocumentation.responseFields;
+import static org.springframework.restdocs.payload.PayloadDocumentation.subsectionWithPath;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.requestParameters;
 import static org.springframework.restdocs.restassured3.RestAssuredRestDocumentation.document;
@@ -111,6 +112,7 @@ public class ProductControllerTest {
                         fieldWithPath("data.content.[].productPrice").type(JsonFieldType.NUMBER).description("상품 가격").optional(),
                         fieldWithPath("data.content.[].productCategory").type(JsonFieldType.STRING).description("상품 카테고리").optional(),
                         fieldWithPath("data.content.[].productThumbnailImg").type(JsonFieldType.STRING).description("상품 썸네일").optional(),
+                        subsectionWithPath("data.content.[].productThumbnailImgs").type(JsonFieldType.OBJECT).description("크기별 썸네일 이미지 url (list, card, detail)").optional(),
                         fieldWithPath("data.content.[].productCreatedAt").type(JsonFieldType.STRING).description("생성일자 (yyyy-MM-dd'T'HH:mm:ss)").optional(),
                         fieldWithPath("data.content.[].productUpdatedAt").type(JsonFieldType.STRING).description("수정일자 (yyyy-MM-dd'T'HH:mm:ss)").optional(),
                         fieldWithPath("data.content.[].productDeletedAt").type(JsonFieldType.STRING).description("삭제일자 (yyyy-MM-dd'T'HH:mm:ss)").optional(),
@@ -179,6 +181,7 @@ public class ProductControllerTest {
                     fieldWithPath("data.product.productPrice").type(JsonFieldType.NUMBER).description("상품 가격"),
                     fieldWithPath("data.product.productCategory").type(JsonFieldType.STRING).description("상품의 카테고리"),
                     fieldWithPath("data.product.productThumbnailImg").type(JsonFieldType.STRING).description("상품의 썸네일 이미지"),
+                    subsectionWithPath("data.product.productThumbnailImgs").type(JsonFieldType.OBJECT).description("크기별 썸네일 이미지 url (list, card, detail)"),
                     fieldWithPath("data.product.productCreatedAt").type(JsonFieldType.STRING).description("상품의 생성 일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                     fieldWithPath("data.product.productUpdatedAt").type(JsonFieldType.STRING).description("상품의 수정 일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                     fieldWithPath("data.product.productDeletedAt").description("상품의 삭제 일자  (yyyy-MM-dd'T'HH:mm:ss").optional(),
@@ -187,6 +190,7 @@ public class ProductControllerTest {
                     fieldWithPath("data.productDetail.[].productDetailId").type(JsonFieldType.NUMBER).description("상품 상세 ID"),
                     fieldWithPath("data.productDetail.[].productId").type(JsonFieldType.NUMBER).description("상품 ID"),
                     fieldWithPath("data.productDetail.[].img").type(JsonFieldType.STRING).description("상품 이미지"),
+                    subsectionWithPath("data.productDetail.[].imgs").type(JsonFieldType.OBJECT).description("크기별 상품 이미지 url (list, card, detail)"),
                     fieldWithPath("data.productDetail.[].imgCaption").type(JsonFieldType.STRING).description("상품 이미지 상세 설명"),
                     fieldWithPath("data.storeName").type(JsonFieldType.STRING).description("상품을 판매자한 스토어 이름")
                     )
@@ -287,6 +291,7 @@ public class ProductControllerTest {
                         fieldWithPath("data.content.[].productPrice").type(JsonFieldType.NUMBER).description("상품 가격"),
                         fieldWithPath("data.content.[].productCategory").type(JsonFieldType.STRING).description("상품 카테고리"),
                         fieldWithPath("data.content.[].productThumbnailImg").type(JsonFieldType.STRING).description("상품 썸네일"),
+                        subsectionWithPath("data.content.[].productThumbnailImgs").type(JsonFieldType.OBJECT).description("크기별 썸네일 이미지 url (list, card, detail)"),
                         fieldWithPath("data.content.[].productCreatedAt").type(JsonFieldType.STRING).description("생성일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                         fieldWithPath("data.content.[].productUpdatedAt").type(JsonFieldType.STRING).description("수정일자 (yyyy-MM-dd'T'HH:mm:ss)"),
                         fieldWithPath("data.content.[].productDeletedAt").description("삭제일자 (yyyy-MM-dd'T'HH:mm:ss)").optional(),
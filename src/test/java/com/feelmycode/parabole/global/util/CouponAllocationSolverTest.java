@@ -0,0 +1,123 @@
+package com.feelmycode.parabole.global.util;
+
+import java.util.Random;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+
+/** 작은 입력에서 모든 배정을 직접 따져 본 결과와 솔버의 할인 합계를 비교한다. */
+public class CouponAllocationSolverTest {
+
+    @Test
+    @DisplayName("그룹마다 할인 금액이 가장 큰 쿠폰을 배정한다")
+    public void best_coupon_per_group() {
+        long[][] weights = {
+            {500, 0, 100},
+            {0, 700, 0},
+        };
+
+        int[] result = CouponAllocationSolver.solve(weights);
+
+        Assertions.assertArrayEquals(new int[]{0, 1}, result);
+    }
+
+    @Test
+    @DisplayName("할인 금액이 같으면 앞선 쿠폰을 고른다")
+    public void tie_prefers_lower_index() {
+        long[][] weights = {
+            {0, 300, 300},
+        };
+
+        int[] result = CouponAllocationSolver.solve(weights);
+
+        Assertions.assertArrayEquals(new int[]{1}, result);
+    }
+
+    @Test
+    @DisplayName("적용할 쿠폰이 없는 그룹은 배정하지 않는다")
+    public void no_applicable_coupon() {
+        long[][] weights = {
+            {0, 0},
+            {300, 0},
+        };
+
+        int[] result = CouponAllocationSolver.solve(weights);
+
+        Assertions.assertArrayEquals(new int[]{CouponAllocationSolver.NONE, 0}, result);
+    }
+
+    @Test
+    @DisplayName("int 범위를 넘는 할인 금액도 그대로 비교한다")
+    public void discounts_beyond_int_range() {
+        long[][] weights = {
+            {3_000_000_000L, 2_500_000_000L, 0},
+            {0, 0, 10L},
+        };
+
+        int[] result = CouponAllocationSolver.solve(weights);
+
+        Assertions.assertEquals(3_000_000_010L, total(weights, result));
+    }
+
+    @Test
+    @DisplayName("판매자 전용 쿠폰만 있는 작은 무작위 입력에서 완전 탐색과 같은 할인 합계를 낸다")
+    public void matches_brute_force() {
+        Random random = new Random(7);
+        for (int round = 0; round < 2_000; round++) {
+            int groups = 1 + random.nextInt(4);
+            int coupons = random.nextInt(6);
+            // 쿠폰마다 한 그룹(판매자)에만 적용된다. 금액 범위를 좁혀 같은 금액이 자주 나오게 한다
+            long[][] weights = new long[groups][coupons];
+            for (int c = 0; c < coupons; c++) {
+                if (random.nextInt(4) != 0) {
+                    weights[random.nextInt(groups)][c] = random.nextInt(5);
+                }
+            }
+
+            int[] result = CouponAllocationSolver.solve(weights);
+
+            assertValid(weights, result);
+            Assertions.assertEquals(bruteForce(weights, 0, new boolean[coupons]), total(weights, result),
+                "round " + round);
+        }
+    }
+
+    private static void assertValid(long[][] weights, int[] result) {
+        Assertions.assertEquals(weights.length, result.length);
+        boolean[] used = new boolean[weights.length == 0 ? 0 : weights[0].length];
+        for (int g = 0; g < result.length; g++) {
+            int c = result[g];
+            if (c == CouponAllocationSolver.NONE) {
+                continue;
+            }
+            Assertions.assertTrue(weights[g][c] > 0);
+            Assertions.assertFalse(used[c]);
+            used[c] = true;
+        }
+    }
+
+    private static long total(long[][] weights, int[] result) {
+        long sum = 0;
+        for (int g = 0; g < result.length; g++) {
+            if (result[g] != CouponAllocationSolver.NONE) {
+                sum += weights[g][result[g]];
+            }
+        }
+        return sum;
+    }
+
+    private static long bruteForce(long[][] weights, int g, boolean[] used) {
+        if (g == weights.length) {
+            return 0;
+        }
+        long best = bruteForce(weights, g + 1, used);
+        for (int c = 0; c < used.length; c++) {
+            if (!used[c] && weights[g][c] > 0) {
+                used[c] = true;
+                best = Math.max(best, weights[g][c] + bruteForce(weights, g + 1, used));
+                used[c] = false;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,130 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Cart;
+import com.feelmycode.parabole.dto.CartItemRowDto;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.repository.CartItemBulkRepository;
+import com.feelmycode.parabole.repository.CartRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** 저장소를 목으로 두고 모아 둔 변경이 어떻게 반영되는지 확인한다. 스프링 컨텍스트 없이 실행한다. */
+public class CartStoreTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long CART_ID = 10L;
+
+    private CartItemBulkRepository cartItemBulkRepository;
+    private CartStore cartStore;
+
+    @Before
+    public void setUp() {
+        Cart cart = Mockito.mock(Cart.class);
+        Mockito.when(cart.getId()).thenReturn(CART_ID);
+        CartRepository cartRepository = Mockito.mock(CartRepository.class);
+        Mockito.when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        cartItemBulkRepository = Mockito.mock(CartItemBulkRepository.class);
+        Mockito.when(cartItemBulkRepository.findRows(CART_ID)).thenReturn(List.of(
+            new CartItemRowDto(100L, 1000L, 1),
+            new CartItemRowDto(101L, 1001L, 1),
+            new CartItemRowDto(102L, 1002L, 1)));
+        cartStore = new CartStore(cartRepository, cartItemBulkRepository,
+            Mockito.mock(PlatformTransactionManager.class), 100, 30);
+    }
+
+    @Test
+    @DisplayName("같은 상품의 수량을 여러 번 바꾸면 마지막 값만 저장한다")
+    public void last_update_wins() {
+        cartStore.update(USER_ID, 100L, 2);
+        cartStore.update(USER_ID, 100L, 5);
+        cartStore.update(USER_ID, 101L, 3);
+
+        cartStore.flush(USER_ID);
+
+        Mockito.verify(cartItemBulkRepository).updateCounts(Map.of(100L, 5, 101L, 3));
+        Mockito.verify(cartItemBulkRepository).deleteByIds(Set.of());
+    }
+
+    @Test
+    @DisplayName("수량을 바꾼 뒤 삭제하면 수량 변경은 저장하지 않는다")
+    public void delete_cancels_updates() {
+        cartStore.update(USER_ID, 100L, 2);
+        cartStore.remove(USER_ID, 100L);
+
+        cartStore.flush(USER_ID);
+
+        Mockito.verify(cartItemBulkRepository).updateCounts(Map.of());
+        Mockito.verify(cartItemBulkRepository).deleteByIds(Set.of(100L));
+        Assertions.assertThrows(ParaboleException.class, () -> cartStore.update(USER_ID, 100L, 3));
+    }
+
+    @Test
+    @DisplayName("반영에 실패한 변경은 남겨 두었다가 다시 저장하고 그 사이 바꾼 값이 우선한다")
+    public void requeue_after_failed_flush() {
+        Mockito.doThrow(new DataAccessResourceFailureException("down"))
+            .doNothing()
+            .when(cartItemBulkRepository).updateCounts(Mockito.anyMap());
+        cartStore.update(USER_ID, 100L, 2);
+        cartStore.update(USER_ID, 101L, 3);
+        cartStore.remove(USER_ID, 102L);
+
+        Assertions.assertThrows(DataAccessResourceFailureException.class, () -> cartStore.flush(USER_ID));
+        cartStore.update(USER_ID, 100L, 7);
+        cartStore.flush(USER_ID);
+
+        Mockito.verify(cartItemBulkRepository).updateCounts(Map.of(100L, 7, 101L, 3));
+        Mockito.verify(cartItemBulkRepository).deleteByIds(Set.of(102L));
+    }
+
+    @Test
+    @DisplayName("주문 전에 반영하면 남은 변경이 없어 주기적인 반영이 다시 저장하지 않는다")
+    public void flush_before_checkout() {
+        cartStore.update(USER_ID, 100L, 4);
+        cartStore.remove(USER_ID, 101L);
+
+        cartStore.flush(USER_ID);
+        cartStore.flushAll();
+        cartStore.flush(USER_ID);
+
+        Mockito.verify(cartItemBulkRepository, Mockito.times(1)).updateCounts(Mockito.anyMap());
+        Mockito.verify(cartItemBulkRepository, Mockito.times(1)).deleteByIds(Mockito.anyCollection());
+        Mockito.verify(cartItemBulkRepository).updateCounts(Map.of(100L, 4));
+        Mockito.verify(cartItemBulkRepository).deleteByIds(Set.of(101L));
+    }
+
+    @Test
+    @DisplayName("반영에 실패한 채 내보내면 DB 기준으로 목록을 다시 맞추고 없어진 상품의 변경은 버린다")
+    public void evict_after_failed_flush_reloads() {
+        cartStore.update(USER_ID, 100L, 2);
+        cartStore.update(USER_ID, 101L, 3);
+        cartStore.remove(USER_ID, 102L);
+        // DB 에서 101 이 지워지고 103 이 담겼다.
+        Mockito.when(cartItemBulkRepository.findRows(CART_ID)).thenReturn(List.of(
+            new CartItemRowDto(100L, 1000L, 1),
+            new CartItemRowDto(102L, 1002L, 1),
+            new CartItemRowDto(103L, 1003L, 1)));
+        Mockito.doThrow(new DataAccessResourceFailureException("down"))
+            .doNothing()
+            .when(cartItemBulkRepository).updateCounts(Mockito.anyMap());
+
+        cartStore.evictAfterCommit(USER_ID);
+
+        List<CartItemRowDto> items = cartStore.getItems(USER_ID);
+        Assertions.assertEquals(List.of(100L, 103L), items.stream().map(CartItemRowDto::getCartItemId).toList());
+        Assertions.assertEquals(2, items.get(0).getCnt());
+
+        cartStore.flush(USER_ID);
+
+        Mockito.verify(cartItemBulkRepository).updateCounts(Map.of(100L, 2));
+        Mockito.verify(cartItemBulkRepository).deleteByIds(Set.of(102L));
+    }
+}
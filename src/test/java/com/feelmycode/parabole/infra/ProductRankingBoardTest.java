@@ -0,0 +1,169 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.domain.ProductRanking;
+import com.feelmycode.parabole.enumtype.RankingType;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.global.event.ProductSoldEvent;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import com.feelmycode.parabole.repository.ProductRankingRepository;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/** 저장소를 목으로 두고 순위 갱신, 감쇠, 삭제, 저장과 복원을 확인한다. 스프링 컨텍스트 없이 실행한다. */
+public class ProductRankingBoardTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    private ProductRankingRepository productRankingRepository;
+    private ProductBulkRepository productBulkRepository;
+    private ProductRepository productRepository;
+    private ProductRankingBoard board;
+
+    @Before
+    public void setUp() {
+        productRankingRepository = Mockito.mock(ProductRankingRepository.class);
+        productBulkRepository = Mockito.mock(ProductBulkRepository.class);
+        productRepository = Mockito.mock(ProductRepository.class);
+        board = new ProductRankingBoard(productRankingRepository, productBulkRepository, productRepository, 2, 24);
+    }
+
+    @Test
+    @DisplayName("누적 판매량 순서로 전체와 카테고리별 상위 상품을 보여준다")
+    public void best_ranks_by_sales() {
+        restore(ranking(1L, "socks", 5L), ranking(2L, "gloves", 3L), ranking(3L, "socks", 1L));
+        Assertions.assertEquals(List.of(1L, 2L), ids(RankingType.BEST, ""));
+
+        board.onProductSold(new ProductSoldEvent(Map.of(3L, 10L)));
+        // 조회 목록은 publish 때 바뀐다.
+        Assertions.assertEquals(List.of(1L, 2L), ids(RankingType.BEST, ""));
+        board.publish();
+
+        Assertions.assertEquals(List.of(3L, 1L), ids(RankingType.BEST, ""));
+        Assertions.assertEquals(List.of(3L, 1L), ids(RankingType.BEST, "socks"));
+        Assertions.assertEquals(List.of(2L), ids(RankingType.BEST, "gloves"));
+    }
+
+    @Test
+    @DisplayName("처음 팔린 상품은 카테고리를 읽어 순위에 넣는다")
+    public void first_sale_reads_category() {
+        restore(ranking(1L, "socks", 1L));
+        Mockito.when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(product(2L, "gloves")));
+
+        board.onProductSold(new ProductSoldEvent(Map.of(2L, 3L)));
+        board.publish();
+
+        Assertions.assertEquals(List.of(2L, 1L), ids(RankingType.BEST, ""));
+        Assertions.assertEquals(List.of(2L), ids(RankingType.BEST, "gloves"));
+    }
+
+    @Test
+    @DisplayName("최근 판매 점수는 저장된 뒤 지난 시간만큼 감쇠해 복원한다")
+    public void trending_decays() {
+        LocalDateTime now = LocalDateTime.now();
+        // 반감기 24 시간이 두 번 지나 8 점은 2 점이 된다.
+        restore(new ProductRanking(1L, "socks", 10L, 8d, now.minusHours(48)),
+            new ProductRanking(2L, "socks", 1L, 4d, now));
+
+        Assertions.assertEquals(List.of(1L, 2L), ids(RankingType.BEST, ""));
+        Assertions.assertEquals(List.of(2L, 1L), ids(RankingType.TRENDING, ""));
+    }
+
+    @Test
+    @DisplayName("삭제된 상품은 순위에서 빠지고 다음 상품이 빈자리를 채운다")
+    public void deleted_product_is_removed() {
+        restore(ranking(1L, "socks", 5L), ranking(2L, "socks", 4L), ranking(3L, "socks", 3L));
+        Product deleted = product(1L, "socks");
+        deleted.delete();
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(deleted));
+
+        board.onProductChanged(ProductChangedEvent.updated(deleted, "socks"));
+        board.onProductSold(new ProductSoldEvent(Map.of(1L, 10L)));
+        board.publish();
+
+        Assertions.assertEquals(List.of(2L, 3L), ids(RankingType.BEST, ""));
+        Assertions.assertEquals(List.of(2L, 3L), ids(RankingType.BEST, "socks"));
+        Assertions.assertEquals(List.of(2L, 3L), ids(RankingType.TRENDING, ""));
+    }
+
+    @Test
+    @DisplayName("저장할 때는 지난 저장 이후 늘어난 판매량만 보낸다")
+    public void snapshot_writes_deltas() {
+        restore(ranking(1L, "socks", 5L));
+
+        board.onProductSold(new ProductSoldEvent(Map.of(1L, 2L)));
+        board.snapshot();
+        board.onProductSold(new ProductSoldEvent(Map.of(1L, 3L)));
+        board.snapshot();
+        board.snapshot();
+
+        List<List<ProductRanking>> saved = captureSnapshots(2);
+        Assertions.assertEquals(2L, saved.get(0).get(0).getSalesCount());
+        Assertions.assertEquals(3L, saved.get(1).get(0).getSalesCount());
+    }
+
+    @Test
+    @DisplayName("저장에 실패한 판매량은 다음 저장 때 함께 보낸다")
+    public void failed_snapshot_is_retried() {
+        restore(ranking(1L, "socks", 5L));
+        Mockito.doThrow(new IllegalStateException("db down")).doNothing()
+            .when(productBulkRepository).upsertRankings(Mockito.anyList(), Mockito.anyDouble());
+
+        board.onProductSold(new ProductSoldEvent(Map.of(1L, 2L)));
+        board.snapshot();
+        board.onProductSold(new ProductSoldEvent(Map.of(1L, 3L)));
+        board.snapshot();
+
+        List<List<ProductRanking>> saved = captureSnapshots(2);
+        Assertions.assertEquals(5L, saved.get(1).get(0).getSalesCount());
+    }
+
+    @Test
+    @DisplayName("스냅샷이 없으면 주문 상품으로 누적 판매량을 계산해 한 번만 저장한다")
+    public void load_without_snapshot_seeds_sales() {
+        Mockito.when(productBulkRepository.sumSales(Mockito.anyInt()))
+            .thenReturn(List.of(new ProductRanking(1L, "socks", 3L, 0d, null)));
+
+        board.load();
+        board.snapshot();
+
+        Assertions.assertEquals(List.of(1L), ids(RankingType.BEST, ""));
+        Mockito.verify(productBulkRepository).insertRankingsIfAbsent(Mockito.anyList());
+        Mockito.verify(productBulkRepository, Mockito.never()).upsertRankings(Mockito.anyList(), Mockito.anyDouble());
+    }
+
+    private void restore(ProductRanking... rows) {
+        Mockito.when(productRankingRepository.findAll()).thenReturn(List.of(rows));
+        board.load();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ProductRanking>> captureSnapshots(int times) {
+        ArgumentCaptor<List<ProductRanking>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(productBulkRepository, Mockito.times(times)).upsertRankings(captor.capture(), Mockito.anyDouble());
+        return captor.getAllValues();
+    }
+
+    private List<Long> ids(RankingType type, String category) {
+        return board.getPage(type, category, PAGE).getContent();
+    }
+
+    private static ProductRanking ranking(Long productId, String category, Long salesCount) {
+        return new ProductRanking(productId, category, salesCount, salesCount.doubleValue(), LocalDateTime.now());
+    }
+
+    private static Product product(Long id, String category) {
+        return new Product(id, null, 1, 10L, category, "thumbnail.png", "product " + id, 1000L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.feelmycode.parabole.infra;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.global.event.ProductChangedEvent;
+import com.feelmycode.parabole.repository.ProductRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/** 저장소를 목으로 두고 색인 생성, 갱신, 검색 결과를 확인한다. 스프링 컨텍스트 없이 실행한다. */
+public class ProductSearchIndexTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @Before
+    public void setUp() {
+        productRepository = Mockito.mock(ProductRepository.class);
+        index = new ProductSearchIndex(productRepository, true, 100);
+    }
+
+    @Test
+    @DisplayName("상품명 일치, 앞부분 일치, 앞쪽 위치 순서로 찾는다")
+    public void search_ranks_matches() {
+        build(product(1L, "면 양말"), product(2L, "양말"), product(3L, "양말 세트"), product(4L, "장갑"));
+
+        Assertions.assertEquals(List.of(2L, 3L, 1L), index.search("양말", "", PAGE).getContent());
+        Assertions.assertEquals(List.of(3L, 2L), index.searchBefore("양말", "", 4L, 2));
+    }
+
+    @Test
+    @DisplayName("한 글자 검색어도 색인으로 찾는다")
+    public void search_single_character() {
+        build(product(1L, "면 양말"), product(2L, "장갑"), product(3L, "Socks"));
+
+        Assertions.assertEquals(List.of(1L), index.search("말", "", PAGE).getContent());
+        Assertions.assertEquals(List.of(3L), index.search("S", "", PAGE).getContent());
+    }
+
+    @Test
+    @DisplayName("공백도 글자로 보아 LIKE 검색과 같은 상품을 찾는다")
+    public void search_keeps_whitespace() {
+        build(product(1L, "양말 세트"), product(2L, "양말세트"));
+
+        Assertions.assertEquals(List.of(2L), index.search("양말세트", "", PAGE).getContent());
+        Assertions.assertEquals(List.of(1L), index.search("양말 세트", "", PAGE).getContent());
+    }
+
+    @Test
+    @DisplayName("상품명이 바뀌면 이전 이름으로는 찾지 않는다")
+    public void update_reindexes_product() {
+        build(product(1L, "양말"));
+        Product renamed = product(1L, "장갑");
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(renamed));
+
+        index.onProductChanged(ProductChangedEvent.updated(renamed, "category"));
+
+        Assertions.assertTrue(index.search("양말", "", PAGE).isEmpty());
+        Assertions.assertEquals(List.of(1L), index.search("장갑", "", PAGE).getContent());
+    }
+
+    @Test
+    @DisplayName("삭제된 상품은 찾지 않는다")
+    public void delete_removes_product() {
+        build(product(1L, "양말"), product(2L, "면 양말"));
+        Product deleted = product(1L, "양말");
+        deleted.delete();
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(deleted));
+
+        index.onProductChanged(ProductChangedEvent.updated(deleted, "category"));
+
+        Assertions.assertEquals(List.of(2L), index.search("양말", "", PAGE).getContent());
+    }
+
+    @Test
+    @DisplayName("색인을 만드는 동안 바뀐 상품은 만든 뒤 다시 색인한다")
+    public void change_during_build_is_replayed() {
+        Product stale = product(1L, "양말");
+        Product renamed = product(1L, "장갑");
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(renamed));
+        Mockito.when(productRepository.findAllById(Mockito.anyIterable())).thenReturn(List.of(renamed));
+        Mockito.when(productRepository.findAll(Mockito.any(Pageable.class))).thenAnswer(invocation -> {
+            // 첫 페이지를 읽은 직후 상품명이 바뀌어 커밋된다.
+            index.onProductChanged(ProductChangedEvent.updated(renamed, "category"));
+            return new PageImpl<>(List.of(stale), invocation.getArgument(0), 1);
+        });
+
+        Assertions.assertFalse(index.isReady());
+        index.build();
+
+        Assertions.assertTrue(index.isReady());
+        Assertions.assertTrue(index.search("양말", "", PAGE).isEmpty());
+        Assertions.assertEquals(List.of(1L), index.search("장갑", "", PAGE).getContent());
+    }
+
+    private void build(Product... products) {
+        Mockito.when(productRepository.findAll(Mockito.any(Pageable.class))).thenAnswer(invocation ->
+            new PageImpl<>(List.of(products), invocation.getArgument(0), products.length));
+        index.build();
+    }
+
+    private static Product product(Long id, String name) {
+        return new Product(id, null, 1, 10L, "category", "thumbnail.png", name, 1000L);
+    }
+}
@@ -0,0 +1,144 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Coupon;
+import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.domain.User;
+import com.feelmycode.parabole.domain.UserCoupon;
+import com.feelmycode.parabole.enumtype.CouponRedeemResult;
+import com.feelmycode.parabole.enumtype.CouponType;
+import com.feelmycode.parabole.enumtype.CouponUseState;
+import com.feelmycode.parabole.repository.CouponRepository;
+import com.feelmycode.parabole.repository.SellerRepository;
+import com.feelmycode.parabole.repository.UserCouponRepository;
+import com.feelmycode.parabole.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/** 하나의 일련번호를 여러 스레드에서 동시에 사용했을 때 한 번만 사용되는지 확인한다. */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class CouponRedeemConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    CouponService couponService;
+    @Autowired
+    CouponRepository couponRepository;
+    @Autowired
+    UserCouponRepository userCouponRepository;
+    @Autowired
+    SellerRepository sellerRepository;
+    @Autowired
+    UserRepository userRepository;
+
+    private Seller seller;
+    private User owner;
+    private User other;
+    private Coupon coupon;
+    private final List<UserCoupon> userCoupons = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        seller = sellerRepository.save(new Seller("redeem test store", "2020202020-2020202020"));
+        owner = userRepository.save(new User("redeem-owner@test.com", "owner", "owner", "010-0000-0001", "1111"));
+        other = userRepository.save(new User("redeem-other@test.com", "other", "other", "010-0000-0002", "1111"));
+        coupon = couponRepository.save(new Coupon("redeem test coupon", seller, CouponType.AMOUNT, 1000,
+            LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), "redeem test", ROUNDS));
+
+        for (int i = 0; i < ROUNDS; i++) {
+            UserCoupon userCoupon = new UserCoupon(coupon);
+            userCoupon.setUser(owner);
+            userCoupons.add(userCouponRepository.save(userCoupon));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        userCouponRepository.deleteAll(userCoupons);
+        couponRepository.delete(coupon);
+        userRepository.delete(owner);
+        userRepository.delete(other);
+        sellerRepository.delete(seller);
+    }
+
+    @Test
+    @DisplayName("같은 일련번호는 동시에 요청해도 한 번만 사용된다")
+    public void redeem_same_serial_concurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (UserCoupon userCoupon : userCoupons) {
+                Map<CouponRedeemResult, AtomicInteger> results = hammer(executor, userCoupon.getSerialNo());
+
+                Assertions.assertEquals(1, count(results, CouponRedeemResult.SUCCESS));
+                Assertions.assertEquals(THREADS - 1, count(results, CouponRedeemResult.ALREADY_USED));
+                Assertions.assertEquals(CouponUseState.Used,
+                    userCouponRepository.findById(userCoupon.getId()).orElseThrow().getUseState());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(ROUNDS, couponRepository.findById(coupon.getId()).orElseThrow().getUsedCnt());
+    }
+
+    @Test
+    @DisplayName("다른 사용자의 쿠폰은 사용할 수 없다")
+    public void redeem_not_owner() {
+        UserCoupon userCoupon = userCoupons.get(0);
+
+        Assertions.assertEquals(CouponRedeemResult.NOT_OWNER,
+            couponService.redeemUserCoupon(userCoupon.getSerialNo(), other.getId()));
+        Assertions.assertEquals(CouponUseState.NotUsed,
+            userCouponRepository.findById(userCoupon.getId()).orElseThrow().getUseState());
+        Assertions.assertEquals(0, couponRepository.findById(coupon.getId()).orElseThrow().getUsedCnt());
+    }
+
+    private Map<CouponRedeemResult, AtomicInteger> hammer(ExecutorService executor, String serialNo)
+        throws Exception {
+        Map<CouponRedeemResult, AtomicInteger> results = new ConcurrentHashMap<>();
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                CouponRedeemResult result = couponService.redeemUserCoupon(serialNo, owner.getId());
+                results.computeIfAbsent(result, r -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }));
+        }
+        ready.await(10, TimeUnit.SECONDS);
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        return results;
+    }
+
+    private int count(Map<CouponRedeemResult, AtomicInteger> results, CouponRedeemResult result) {
+        AtomicInteger count = results.get(result);
+        return count == null ? 0 : count.get();
+    }
+}
@@ -0,0 +1,219 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.dto.ProductImageDto;
+import com.feelmycode.parabole.enumtype.ImageSize;
+import com.feelmycode.parabole.infra.LocalImageStorage;
+import com.feelmycode.parabole.repository.ProductBulkRepository;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/** 로컬 저장소로 축소본 생성을 확인한다. 스프링 컨텍스트 없이 호출한 스레드에서 바로 실행한다. */
+public class ImageDerivativeServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private LocalImageStorage storage;
+    private ProductBulkRepository productBulkRepository;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.getRoot().toPath();
+        productBulkRepository = Mockito.mock(ProductBulkRepository.class);
+        storage = new LocalImageStorage(root.toString(), "");
+        byte[] png = png(1200, 600);
+        storage.store("origin.png", new ByteArrayInputStream(png), png.length, "image/png");
+    }
+
+    @Test
+    @DisplayName("업로드한 이미지의 크기별 축소본을 비율을 유지해 만들고 기록한다")
+    public void generate_all_sizes() throws IOException {
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("origin.png");
+
+        service.generateAsync(1L, List.of(url));
+
+        Mockito.verify(productBulkRepository).markDerived(1L, url, true);
+        for (ImageSize size : ImageSize.values()) {
+            BufferedImage image = ImageIO.read(root.resolve(size.derive("origin.png")).toFile());
+            Assertions.assertEquals(size.getWidth(), image.getWidth());
+            Assertions.assertEquals(size.getWidth() / 2, image.getHeight());
+        }
+    }
+
+    @Test
+    @DisplayName("기록된 이미지는 만든 축소본의 URL 을 크기별로 내려준다")
+    public void derived_image_advertises_generated_files() {
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("origin.png");
+
+        service.derive(1L, url);
+
+        Mockito.verify(productBulkRepository).markDerived(1L, url, true);
+        Map<String, String> urls = ImageSize.deriveAll(url, true);
+        for (ImageSize size : ImageSize.values()) {
+            String derived = urls.get(size.getSuffix());
+            Assertions.assertNotEquals(url, derived);
+            Assertions.assertTrue(storage.exists(storage.keyOf(derived)));
+        }
+    }
+
+    @Test
+    @DisplayName("이미 있는 축소본은 다시 만들지 않는다")
+    public void generate_is_idempotent() throws IOException {
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("origin.png");
+        service.derive(1L, url);
+        Path list = root.resolve(ImageSize.LIST.derive("origin.png"));
+        FileTime before = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(list, before);
+
+        service.derive(1L, url);
+
+        Assertions.assertEquals(before, Files.getLastModifiedTime(list));
+        Mockito.verify(productBulkRepository, Mockito.times(2)).markDerived(1L, url, true);
+    }
+
+    @Test
+    @DisplayName("저장소 오류가 나면 다시 시도해 나머지 축소본을 채운다")
+    public void generate_retries_on_storage_error() {
+        AtomicInteger failures = new AtomicInteger(1);
+        LocalImageStorage flaky = new LocalImageStorage(root.toString(), "") {
+            @Override
+            public String store(String key, InputStream inputStream, long contentLength, String contentType)
+                throws IOException {
+                if (key.equals(ImageSize.CARD.derive("origin.png")) && failures.getAndDecrement() > 0) {
+                    throw new IOException("temporary failure");
+                }
+                return super.store(key, inputStream, contentLength, contentType);
+            }
+        };
+        ImageDerivativeService service = service(flaky);
+
+        service.derive(1L, flaky.getUrl("origin.png"));
+
+        Mockito.verify(productBulkRepository).markDerived(1L, flaky.getUrl("origin.png"), true);
+        for (ImageSize size : ImageSize.values()) {
+            Assertions.assertTrue(flaky.exists(size.derive("origin.png")));
+        }
+    }
+
+    @Test
+    @DisplayName("이미지가 아닌 파일은 다시 시도하지 않고 원본만 내려주도록 기록한다")
+    public void generate_skips_non_image() throws IOException {
+        byte[] text = "not an image".getBytes();
+        storage.store("text.png", new ByteArrayInputStream(text), text.length, "image/png");
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("text.png");
+
+        service.derive(1L, url);
+
+        Mockito.verify(productBulkRepository).markDerived(1L, url, false);
+        Assertions.assertFalse(storage.exists(ImageSize.LIST.derive("text.png")));
+        ImageSize.deriveAll(url, false).values().forEach(derived -> Assertions.assertEquals(url, derived));
+    }
+
+    @Test
+    @DisplayName("축소본을 만들면 상품 이미지에 기록한다")
+    public void derive_marks_derived() {
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("origin.png");
+
+        service.derive(1L, url);
+
+        Mockito.verify(productBulkRepository).markDerived(1L, url, true);
+        Assertions.assertTrue(storage.exists(ImageSize.LIST.derive("origin.png")));
+    }
+
+    @Test
+    @DisplayName("기본 이미지나 저장소에 없는 이미지는 축소본을 만들 수 없다고 기록한다")
+    public void derive_marks_not_derivable() {
+        ImageDerivativeService service = service(storage);
+
+        service.derive(1L, ImageSize.NO_IMAGE);
+        service.derive(2L, storage.getUrl("missing.png"));
+
+        Mockito.verify(productBulkRepository).markDerived(1L, ImageSize.NO_IMAGE, false);
+        Mockito.verify(productBulkRepository).markDerived(2L, storage.getUrl("missing.png"), false);
+    }
+
+    @Test
+    @DisplayName("재시도 끝에 실패하면 기록하지 않아 다음 backfill 에서 다시 만든다")
+    public void derive_leaves_failed_image_for_backfill() {
+        LocalImageStorage broken = new LocalImageStorage(root.toString(), "") {
+            @Override
+            public String store(String key, InputStream inputStream, long contentLength, String contentType)
+                throws IOException {
+                throw new IOException("storage down");
+            }
+        };
+        ImageDerivativeService service = service(broken);
+
+        service.derive(1L, broken.getUrl("origin.png"));
+
+        Mockito.verifyNoInteractions(productBulkRepository);
+    }
+
+    @Test
+    @DisplayName("backfill 은 상태가 기록되지 않은 이미지의 축소본을 만든다")
+    public void backfill_derives_unmarked_images() {
+        ImageDerivativeService service = service(storage);
+        String url = storage.getUrl("origin.png");
+        Mockito.when(productBulkRepository.findUnderivedThumbnails(0L, 100))
+            .thenReturn(List.of(new ProductImageDto(1L, 1L, url)));
+
+        service.backfill();
+
+        Mockito.verify(productBulkRepository).markDerived(1L, url, true);
+    }
+
+    @Test
+    @DisplayName("backfill 은 지난번에 멈춘 다음부터 찾고 끝까지 찾으면 처음부터 다시 찾는다")
+    public void backfill_resumes_from_cursor() {
+        ImageDerivativeService service = new ImageDerivativeService(storage, Runnable::run, productBulkRepository,
+            3, 0, 1);
+        String missing = storage.getUrl("missing.png");
+        Mockito.when(productBulkRepository.findUnderivedThumbnails(0L, 1))
+            .thenReturn(List.of(new ProductImageDto(5L, 5L, missing)));
+        Mockito.when(productBulkRepository.findUnderivedDetailImages(0L, 1))
+            .thenReturn(List.of(new ProductImageDto(7L, 5L, missing)));
+
+        service.backfill();
+        service.backfill();
+        service.backfill();
+
+        Mockito.verify(productBulkRepository).findUnderivedThumbnails(5L, 1);
+        Mockito.verify(productBulkRepository).findUnderivedDetailImages(7L, 1);
+        Mockito.verify(productBulkRepository, Mockito.times(2)).findUnderivedThumbnails(0L, 1);
+        Mockito.verify(productBulkRepository, Mockito.times(2)).findUnderivedDetailImages(0L, 1);
+    }
+
+    /** 호출한 스레드에서 바로 실행하고 재시도 간격 없이 3 번까지 시도한다. */
+    private ImageDerivativeService service(LocalImageStorage storage) {
+        return new ImageDerivativeService(storage, Runnable::run, productBulkRepository, 3, 0, 100);
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,187 @@
+package com.feelmycode.parabole.service;
+
+import com.feelmycode.parabole.domain.Product;
+import com.feelmycode.parabole.domain.Seller;
+import com.feelmycode.parabole.global.error.exception.ParaboleException;
+import com.feelmycode.parabole.repository.ProductRepository;
+import com.feelmycode.parabole.repository.SellerRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** 여러 스레드가 같은 상품을 동시에 구매해도 재고보다 많이 팔리지 않는지 확인한다. */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "product.stock.flash.chunk-size=10")
+public class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 200;
+    private static final long STOCK = 50L;
+
+    @Autowired
+    ProductStockService productStockService;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    SellerRepository sellerRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Seller seller;
+    private Product hot;
+    private Product other;
+
+    @Before
+    public void setUp() {
+        seller = sellerRepository.save(new Seller("stock test store", "4040404040-4040404040"));
+        hot = productRepository.save(new Product(seller, 1, STOCK, "test", "hot.png", "stock test hot", 1000L));
+        other = productRepository.save(new Product(seller, 1, STOCK, "test", "other.png", "stock test other", 1000L));
+    }
+
+    @After
+    public void tearDown() {
+        productStockService.closeFlashSale(seller.getId(), hot.getId());
+        productRepository.delete(hot);
+        productRepository.delete(other);
+        sellerRepository.delete(seller);
+    }
+
+    @Test
+    @DisplayName("동시에 차감해도 재고만큼만 성공한다")
+    public void decrease_concurrently() throws Exception {
+        int success = hammer(() -> productStockService.decrease(hot.getId(), 1L));
+
+        Assertions.assertEquals(STOCK, success);
+        Assertions.assertEquals(0L, productRepository.findById(hot.getId()).orElseThrow().getRemains());
+    }
+
+    @Test
+    @DisplayName("여러 상품 차감은 하나라도 부족하면 모두 취소된다")
+    public void reserve_all_or_nothing() throws Exception {
+        // other 는 2 개씩 차감하므로 25 건만 성공하고, 이후 요청은 hot 재고도 건드리지 않아야 한다.
+        int success = hammer(() -> productStockService.reserve(Map.of(hot.getId(), 1L, other.getId(), 2L)));
+
+        Assertions.assertEquals(STOCK / 2, success);
+        Assertions.assertEquals(STOCK - success, productRepository.findById(hot.getId()).orElseThrow().getRemains());
+        Assertions.assertEquals(0L, productRepository.findById(other.getId()).orElseThrow().getRemains());
+    }
+
+    @Test
+    @DisplayName("타임세일 상품은 DB 에서 가져온 메모리 재고로 차감하고 DB 재고와 어긋나지 않는다")
+    public void flash_sale_concurrently() throws Exception {
+        Assertions.assertEquals(STOCK, productStockService.openFlashSale(seller.getId(), hot.getId()));
+
+        int success = hammer(() -> productStockService.decrease(hot.getId(), 1L));
+
+        Assertions.assertEquals(STOCK, success);
+        Product product = productRepository.findById(hot.getId()).orElseThrow();
+        Assertions.assertEquals(0L, productStockService.getRemains(product));
+        Assertions.assertEquals(0L, product.getRemains());
+    }
+
+    @Test
+    @DisplayName("타임세일을 모르는 다른 인스턴스가 DB 로 차감해도 재고보다 많이 팔리지 않는다")
+    public void flash_sale_with_other_instance() throws Exception {
+        productStockService.openFlashSale(seller.getId(), hot.getId());
+        TransactionTemplate otherInstance = new TransactionTemplate(transactionManager);
+        AtomicInteger turn = new AtomicInteger();
+
+        int success = hammer(() -> {
+            if (turn.incrementAndGet() % 2 == 0) {
+                productStockService.decrease(hot.getId(), 1L);
+                return;
+            }
+            otherInstance.executeWithoutResult(status -> {
+                if (productRepository.decreaseRemains(hot.getId(), 1L) == 0) {
+                    throw new ParaboleException(HttpStatus.BAD_REQUEST, "재고가 부족합니다.");
+                }
+            });
+        });
+        productStockService.closeFlashSale(seller.getId(), hot.getId());
+
+        Assertions.assertEquals(STOCK, success);
+        Assertions.assertEquals(0L, productRepository.findById(hot.getId()).orElseThrow().getRemains());
+    }
+
+    @Test
+    @DisplayName("타임세일을 종료하면 팔지 못한 메모리 재고를 DB 로 돌려놓는다")
+    public void close_flash_sale_gives_back_unsold() {
+        productStockService.openFlashSale(seller.getId(), hot.getId());
+        productStockService.decrease(hot.getId(), 3L);
+
+        productStockService.closeFlashSale(seller.getId(), hot.getId());
+
+        Assertions.assertEquals(STOCK - 3, productRepository.findById(hot.getId()).orElseThrow().getRemains());
+    }
+
+    @Test
+    @DisplayName("판매 중에 타임세일을 종료해도 판매 수량이 빠짐없이 DB 재고에 반영된다")
+    public void close_flash_sale_while_selling() throws Exception {
+        productStockService.openFlashSale(seller.getId(), hot.getId());
+
+        ExecutorService closer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> close = closer.submit(() -> {
+                TimeUnit.MILLISECONDS.sleep(5);
+                productStockService.closeFlashSale(seller.getId(), hot.getId());
+                return null;
+            });
+            int success = hammer(() -> productStockService.decrease(hot.getId(), 1L));
+            close.get(30, TimeUnit.SECONDS);
+
+            // 종료 뒤의 요청은 DB 재고로 차감된다.
+            Assertions.assertEquals(STOCK, success);
+            Assertions.assertEquals(0L, productRepository.findById(hot.getId()).orElseThrow().getRemains());
+        } finally {
+            closer.shutdownNow();
+        }
+    }
+
+    /** REQUESTS 건의 요청을 THREADS 개 스레드에서 동시에 실행하고 성공한 건수를 반환 */
+    private int hammer(Runnable request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    try {
+                        request.run();
+                        success.incrementAndGet();
+                    } catch (ParaboleException e) {
+                        // 재고 부족
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return success.get();
+    }
+}